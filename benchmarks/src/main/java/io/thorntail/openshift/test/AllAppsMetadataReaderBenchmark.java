@@ -0,0 +1,63 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.openshift.client.DefaultOpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// reading app metadata when the manifest was already parsed (the usual case) and when it wasn't
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AllAppsMetadataReaderBenchmark {
+    @Param({"10", "100"})
+    public int apps;
+
+    private OpenShiftClient oc;
+    private Path yaml;
+
+    @Setup
+    public void setUp() throws IOException {
+        yaml = Files.createTempFile("all-apps-metadata-benchmark", ".yml");
+        Files.write(yaml, Manifests.yaml(apps));
+
+        // reading metadata doesn't talk to the API server
+        oc = new DefaultOpenShiftClient(new OpenShiftConfigBuilder().withMasterUrl("http://localhost:1").build());
+    }
+
+    @Benchmark
+    public AllAppsMetadata readCached() throws IOException {
+        return new AllAppsMetadataReader(oc).read(yaml);
+    }
+
+    @Benchmark
+    public AllAppsMetadata readUncached() throws IOException {
+        ManifestCache.evict(yaml);
+        return new AllAppsMetadataReader(oc).read(yaml);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        oc.close();
+        Files.delete(yaml);
+    }
+}
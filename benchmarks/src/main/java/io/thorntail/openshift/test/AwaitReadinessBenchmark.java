@@ -0,0 +1,76 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.thorntail.openshift.test.util.AwaitUtil;
+import io.thorntail.openshift.test.util.DiscoveryUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// how long it takes to notice that a deployment config became ready, end to end through the mock API server
+// the change is requested 100 ms after the awaiting starts, but the mock server takes tens of milliseconds
+// (varying a lot) to update the status and deliver the watch event, and that latency is included in the result,
+// so it's noisy and doesn't compare watches to polling well; WatchingAwaitBenchmark measures just that
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class AwaitReadinessBenchmark {
+    private static final String NAME = "app";
+    private static final long READY_AFTER_MILLIS = 100;
+
+    @Param({"false", "true"})
+    public String pollReadiness;
+
+    private MockCluster cluster;
+    private AwaitUtil await;
+    private ScheduledExecutorService executor;
+    private List<HasMetadata> resources;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // must happen before the test framework configuration is first accessed
+        System.setProperty("ts.poll-readiness", pollReadiness);
+
+        cluster = MockCluster.start();
+        await = new AwaitUtil(cluster.client, new DiscoveryUtil(cluster.client), new AllAppsMetadata(Collections.emptyList()));
+        executor = Executors.newSingleThreadScheduledExecutor();
+        resources = Collections.singletonList(Manifests.deploymentConfig(NAME, false));
+    }
+
+    @Setup(Level.Iteration)
+    public void notReady() {
+        cluster.client.deploymentConfigs().createOrReplace(Manifests.deploymentConfig(NAME, false));
+        cluster.setReady(NAME, false);
+    }
+
+    @Benchmark
+    public void awaitReadiness() {
+        executor.schedule(() -> cluster.setReady(NAME, true), READY_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        await.awaitReadiness(resources);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        cluster.stop();
+    }
+}
@@ -0,0 +1,72 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.thorntail.openshift.test.util.DiscoveryUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// route and known endpoint lookups, with and without the discovery cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DiscoveryUtilBenchmark {
+    private static final int APPS = 20;
+
+    @Param({"false", "true"})
+    public String cacheDisabled;
+
+    private MockCluster cluster;
+    private DiscoveryUtil discovery;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // must happen before the test framework configuration is first accessed
+        System.setProperty("ts.disable-discovery-cache", cacheDisabled);
+
+        cluster = MockCluster.start();
+        for (HasMetadata resource : Manifests.resources(APPS)) {
+            // unlike a real cluster, the mock server doesn't fill in the namespace, which the informers need
+            resource.getMetadata().setNamespace(MockCluster.NAMESPACE);
+            cluster.client.resource(resource).createOrReplace();
+        }
+        discovery = new DiscoveryUtil(cluster.client);
+    }
+
+    @Benchmark
+    public Optional<String> getRouteUrl() {
+        return discovery.getRouteUrl(nextApp());
+    }
+
+    @Benchmark
+    public Optional<String> getKnownEndpoint() {
+        return discovery.getKnownEndpoint(nextApp());
+    }
+
+    private String nextApp() {
+        next = (next + 1) % APPS;
+        return "app-" + next;
+    }
+
+    @TearDown
+    public void tearDown() {
+        discovery.close();
+        cluster.stop();
+    }
+}
@@ -0,0 +1,91 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.openshift.client.DefaultOpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+// rewriting images in a manifest that wasn't seen before (which happens once per distinct manifest)
+// and in a manifest that was already rewritten (which happens for each test class)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ImageOverridesBenchmark {
+    @Param({"10", "100"})
+    public int apps;
+
+    @Param({"false", "true"})
+    public String streaming;
+
+    private OpenShiftClient oc;
+    private Path yaml;
+    private byte[] original;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("image-overrides-benchmark");
+
+        StringBuilder overrides = new StringBuilder();
+        for (int i = 0; i < apps; i++) {
+            overrides.append(Manifests.REGISTRY).append("app-").append(i)
+                    .append('=').append("quay.io/mirror/app-").append(i).append('\n');
+        }
+        Path overridesFile = directory.resolve("image-overrides.properties");
+        Files.write(overridesFile, overrides.toString().getBytes(StandardCharsets.UTF_8));
+        // must happen before the test framework configuration is first accessed
+        System.setProperty(ImageOverrides.CONFIG_KEY, overridesFile.toString());
+        System.setProperty(ImageOverrides.STREAMING_CONFIG_KEY, streaming);
+
+        yaml = directory.resolve("openshift.yml");
+        original = Manifests.yaml(apps);
+
+        // image overrides don't talk to the API server
+        oc = new DefaultOpenShiftClient(new OpenShiftConfigBuilder().withMasterUrl("http://localhost:1").build());
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreManifest() throws IOException {
+        Files.write(yaml, original);
+    }
+
+    @Benchmark
+    public Path applyChanged() throws IOException {
+        // a distinct comment makes the content distinct, so nothing is memoized
+        invocation++;
+        Files.write(yaml, ("# " + invocation + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        return ImageOverrides.apply(yaml, oc);
+    }
+
+    @Benchmark
+    public Path applyUnchanged() throws IOException {
+        return ImageOverrides.apply(yaml, oc);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        oc.close();
+    }
+}
@@ -0,0 +1,86 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.client.Watch;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+// the entire `beforeAll`/`afterAll` cycle of a test class with a single trivial test, run through the JUnit launcher
+// the application has no routes, because there's nothing to respond to the route warm-up requests
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LifecycleBenchmark {
+    private MockCluster cluster;
+    private Launcher launcher;
+    private LauncherDiscoveryRequest request;
+
+    private Watch readiness;
+    private Path yaml;
+
+    @Setup
+    public void setUp() throws IOException {
+        cluster = MockCluster.start();
+        cluster.useAsDefault();
+        readiness = cluster.simulateReadiness();
+
+        // the test framework reads its configuration only once, so this must happen before it runs
+        yaml = Files.createTempFile("lifecycle-benchmark", ".yml");
+        Files.write(yaml, Manifests.yaml(1, false));
+        System.setProperty("ts.resources-yaml", yaml.toString());
+        // there's no `oc` that could talk to the mock cluster
+        System.setProperty(ResourcesApplier.CONFIG_KEY, "true");
+
+        launcher = LauncherFactory.create();
+        request = request().selectors(selectClass(Subject.class)).build();
+    }
+
+    @Benchmark
+    public void testClass() {
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.execute(request, listener);
+        TestExecutionSummary summary = listener.getSummary();
+        if (summary.getTotalFailureCount() > 0 || summary.getTestsSucceededCount() != 1) {
+            throw new IllegalStateException("Test class didn't pass: " + summary.getFailures());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        readiness.close();
+        cluster.stop();
+        Files.delete(yaml);
+    }
+
+    @OpenShiftTest
+    public static class Subject {
+        @Test
+        public void test() {
+        }
+    }
+}
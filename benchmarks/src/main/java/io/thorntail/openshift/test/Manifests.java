@@ -0,0 +1,107 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.IntOrString;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.api.model.DeploymentConfigBuilder;
+import io.fabric8.openshift.api.model.ImageStreamBuilder;
+import io.fabric8.openshift.api.model.RouteBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// generates manifests resembling what JKube produces: image stream, service, deployment config and route for each app
+final class Manifests {
+    static final String REGISTRY = "registry.example.com/apps/";
+
+    static byte[] yaml(int apps) throws IOException {
+        return yaml(apps, true);
+    }
+
+    static byte[] yaml(int apps, boolean withRoutes) throws IOException {
+        KubernetesList list = new KubernetesList();
+        list.setItems(resources(apps, withRoutes));
+        return Serialization.yamlMapper().writeValueAsBytes(list);
+    }
+
+    static List<HasMetadata> resources(int apps) {
+        return resources(apps, true);
+    }
+
+    static List<HasMetadata> resources(int apps, boolean withRoutes) {
+        List<HasMetadata> result = new ArrayList<>();
+        for (int i = 0; i < apps; i++) {
+            String name = "app-" + i;
+            result.add(new ImageStreamBuilder()
+                    .withNewMetadata().withName(name).endMetadata()
+                    .withNewSpec()
+                        .withDockerImageRepository(REGISTRY + name)
+                        .addNewTag()
+                            .withName("latest")
+                            .withNewFrom().withKind("DockerImage").withName(REGISTRY + name + ":latest").endFrom()
+                        .endTag()
+                    .endSpec()
+                    .build());
+            result.add(new ServiceBuilder()
+                    .withNewMetadata().withName(name).endMetadata()
+                    .withNewSpec()
+                        .withSelector(labels(name))
+                        .addNewPort().withPort(8080).withTargetPort(new IntOrString(8080)).endPort()
+                    .endSpec()
+                    .build());
+            result.add(deploymentConfig(name, true));
+            if (!withRoutes) {
+                continue;
+            }
+            result.add(new RouteBuilder()
+                    .withNewMetadata().withName(name).endMetadata()
+                    .withNewSpec()
+                        .withHost(name + ".apps.example.com")
+                        .withNewTo().withKind("Service").withName(name).endTo()
+                    .endSpec()
+                    .build());
+        }
+        return result;
+    }
+
+    static DeploymentConfig deploymentConfig(String name, boolean ready) {
+        return new DeploymentConfigBuilder()
+                .withNewMetadata().withName(name).withLabels(labels(name)).endMetadata()
+                .withNewSpec()
+                    .withReplicas(1)
+                    .withSelector(labels(name))
+                    .withNewTemplate()
+                        .withNewMetadata().withLabels(labels(name)).endMetadata()
+                        .withNewSpec()
+                            .addNewContainer()
+                                .withName(name)
+                                .withImage(REGISTRY + name + ":latest")
+                                .withNewReadinessProbe()
+                                    .withNewHttpGet().withPath("/health").withPort(new IntOrString(8080)).endHttpGet()
+                                .endReadinessProbe()
+                            .endContainer()
+                        .endSpec()
+                    .endTemplate()
+                .endSpec()
+                .withNewStatus()
+                    .withLatestVersion(1L)
+                    .withReplicas(1)
+                    .withAvailableReplicas(ready ? 1 : 0)
+                    .withReadyReplicas(ready ? 1 : 0)
+                .endStatus()
+                .build();
+    }
+
+    private static Map<String, String> labels(String name) {
+        return Collections.singletonMap("app", name);
+    }
+
+    private Manifests() {
+    }
+}
@@ -0,0 +1,64 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.client.NamespacedOpenShiftClient;
+import io.fabric8.openshift.client.server.mock.OpenShiftServer;
+
+// in-memory OpenShift API server (CRUD mode, including watches) for benchmarking the framework's own overhead
+final class MockCluster {
+    static final String NAMESPACE = "test";
+
+    private final OpenShiftServer server;
+    final NamespacedOpenShiftClient client;
+
+    static MockCluster start() {
+        OpenShiftServer server = new OpenShiftServer(false, true);
+        server.before();
+        return new MockCluster(server);
+    }
+
+    private MockCluster(OpenShiftServer server) {
+        this.server = server;
+        this.client = server.getOpenshiftClient().inNamespace(NAMESPACE);
+    }
+
+    // makes the clients that the test framework creates on its own connect to this cluster
+    void useAsDefault() {
+        System.setProperty("kubernetes.master", client.getMasterUrl().toString());
+        System.setProperty("kubernetes.namespace", NAMESPACE);
+        System.setProperty("kubernetes.auth.tryKubeConfig", "false");
+        System.setProperty("kubernetes.auth.tryServiceAccount", "false");
+    }
+
+    // the mock server runs no controllers and drops `status` when a resource is created,
+    // so readiness must be set explicitly through the status subresource
+    void setReady(String deploymentConfig, boolean ready) {
+        DeploymentConfig current = client.deploymentConfigs().withName(deploymentConfig).get();
+        current.setStatus(Manifests.deploymentConfig(deploymentConfig, ready).getStatus());
+        client.deploymentConfigs().withName(deploymentConfig).updateStatus(current);
+    }
+
+    // marks each deployment config ready as soon as it's created, as if the application started instantly
+    Watch simulateReadiness() {
+        return client.deploymentConfigs().watch(new Watcher<DeploymentConfig>() {
+            @Override
+            public void eventReceived(Action action, DeploymentConfig resource) {
+                if (action == Action.ADDED) {
+                    setReady(resource.getMetadata().getName(), true);
+                }
+            }
+
+            @Override
+            public void onClose(WatcherException cause) {
+            }
+        });
+    }
+
+    void stop() {
+        client.close();
+        server.after();
+    }
+}
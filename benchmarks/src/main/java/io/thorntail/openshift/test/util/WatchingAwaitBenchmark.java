@@ -0,0 +1,81 @@
+package io.thorntail.openshift.test.util;
+
+import io.fabric8.kubernetes.client.Watcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// how long it takes to notice a state change, with watches and with polling, without any API server
+// the state changes (and the watch event is delivered) exactly 100 ms after the awaiting starts, so 100 ms
+// is the ideal result; unlike AwaitReadinessBenchmark, the result doesn't include the mock server's latency
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class WatchingAwaitBenchmark {
+    private static final long READY_AFTER_MILLIS = 100;
+
+    @Param({"false", "true"})
+    public String pollReadiness;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean ready;
+    private volatile Watcher<Boolean> watcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // must happen before the test framework configuration is first accessed
+        System.setProperty("ts.poll-readiness", pollReadiness);
+
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @Setup(Level.Iteration)
+    public void notReady() {
+        ready = false;
+        watcher = null;
+    }
+
+    @Benchmark
+    public void awaitReadiness() {
+        executor.schedule(() -> {
+            ready = true;
+            Watcher<Boolean> watcher = this.watcher;
+            if (watcher != null) {
+                watcher.eventReceived(Watcher.Action.MODIFIED, true);
+            }
+        }, READY_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+
+        WatchingAwait.<Boolean>until("ready",
+                watcher -> {
+                    this.watcher = watcher;
+                    return () -> this.watcher = null;
+                },
+                Boolean::booleanValue,
+                () -> ready,
+                Duration.ofMinutes(1),
+                PollingPolicy.forPhase(PollingPolicy.READINESS));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+}
@@ -9,7 +9,15 @@ import java.lang.annotation.Target;
 /**
  * Provides URL of additional resources (in YAML or JSON format) that shall be deployed before / undeployed after
  * the tested application. When multiple {@code AdditionalResources} annotations are present, deployment order
- * is guaranteed (first before second etc.), but undeployment order is not.
+ * is guaranteed (first before second etc.) and undeployment happens in reverse order.
+ * <p>
+ * Resources that don't depend on each other can be deployed concurrently by putting them into the same
+ * {@link #wave() wave}. Resources without a wave are deployed first, one by one, then the waves are deployed
+ * in ascending order. All resources in a wave are deployed and awaited at the same time. Undeployment happens
+ * in reverse order.
+ * <p>
+ * Resources that are {@link #shared() shared} are deployed by the first test class that needs them and reused
+ * by all other test classes that declare the same URL. They are undeployed at the end of the test run.
  * <p>
  * In addition to common URL schemes supported by the JDK, an extra {@code classpath:} scheme
  * is recognized, which points to a classloader resource (in that case, the value should <i>not</i> begin
@@ -19,5 +27,18 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Repeatable(AdditionalResourcesContainer.class)
 public @interface AdditionalResources {
+    int NO_WAVE = -1;
+
     String value();
+
+    /**
+     * Resources with the same wave number are deployed concurrently. Must not be negative.
+     */
+    int wave() default NO_WAVE;
+
+    /**
+     * Shared resources are kept for the entire test run, so that other test classes can reuse them.
+     * Ignored when ephemeral namespaces are used.
+     */
+    boolean shared() default false;
 }
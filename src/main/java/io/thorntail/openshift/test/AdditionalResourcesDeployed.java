@@ -1,9 +1,10 @@
 package io.thorntail.openshift.test;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.openshift.client.NamespacedOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.thorntail.openshift.test.util.AwaitUtil;
-import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+import io.thorntail.openshift.test.util.ReadinessUtil;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -15,52 +16,134 @@ import java.util.List;
 
 import static org.fusesource.jansi.Ansi.ansi;
 
-final class AdditionalResourcesDeployed implements CloseableResource {
+final class AdditionalResourcesDeployed {
+    enum Status {
+        READY,
+        NOT_READY,
+        MISSING,
+    }
+
     private final String url;
+    private final String namespace;
     private final Path file;
+    private final boolean temporaryFile;
+    private final List<HasMetadata> resources;
     private final TestsStatus testsStatus;
+    private final OpenShiftClient oc;
 
-    private AdditionalResourcesDeployed(String url, Path file, TestsStatus testsStatus) {
+    private AdditionalResourcesDeployed(String url, Path file, boolean temporaryFile, List<HasMetadata> resources,
+            TestsStatus testsStatus, OpenShiftClient oc) {
         this.url = url;
+        this.namespace = oc.getNamespace();
         this.file = file;
+        this.temporaryFile = temporaryFile;
+        this.resources = resources;
         this.testsStatus = testsStatus;
+        this.oc = oc;
     }
 
     static AdditionalResourcesDeployed deploy(AdditionalResources annotation, TestsStatus testsStatus,
-            OpenShiftClient oc, AwaitUtil awaitUtil) throws IOException, InterruptedException {
+            OpenShiftClient oc, AwaitUtil awaitUtil) throws IOException, InterruptedException, OpenShiftTestException {
         String url = annotation.value();
 
-        InputStream resources;
+        // files from the download cache are shared (and never change), so they are also parsed only once per test run
+        if (DownloadCache.isEnabled() && DownloadCache.isCacheable(url)) {
+            return deploy(url, DownloadCache.get(url), false, testsStatus, oc, awaitUtil);
+        }
+
+        Path tempFile = Files.createTempFile("additional-resources", ".yml");
+        try {
+            try (InputStream resources = open(url)) {
+                Files.copy(resources, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return deploy(url, tempFile, true, testsStatus, oc, awaitUtil);
+        } catch (IOException | InterruptedException | OpenShiftTestException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            ManifestCache.evict(tempFile);
+            throw e;
+        }
+    }
+
+    private static InputStream open(String url) throws IOException {
         if (url.startsWith("classpath:")) {
             String classloaderResource = url.substring("classpath:".length());
-            resources = OpenShiftTestExtension.class.getClassLoader().getResourceAsStream(classloaderResource);
+            InputStream resources = OpenShiftTestExtension.class.getClassLoader().getResourceAsStream(classloaderResource);
             if (resources == null) {
                 throw new IOException("Not found: " + url);
             }
-        } else {
-            resources = new URL(url).openStream();
+            return resources;
         }
-        Path tempFile = Files.createTempFile("additional-resources", ".yml");
-        Files.copy(resources, tempFile, StandardCopyOption.REPLACE_EXISTING);
-        ImageOverrides.apply(tempFile, oc);
+        return new URL(url).openStream();
+    }
+
+    private static AdditionalResourcesDeployed deploy(String url, Path file, boolean temporaryFile,
+            TestsStatus testsStatus, OpenShiftClient oc, AwaitUtil awaitUtil)
+            throws IOException, InterruptedException, OpenShiftTestException {
+        // image overrides don't change resource names, so the original file is good enough for undeployment
+        Path effectiveFile = ImageOverrides.apply(file, oc);
 
         System.out.println(ansi().a("deploying ").fgYellow().a(url).reset());
-        new Command("oc", "apply", "-f", tempFile.toString()).runAndWait();
+        List<HasMetadata> deployedResources;
+        if (ResourcesApplier.isEnabled()) {
+            deployedResources = new ResourcesApplier(oc).apply(ManifestCache.get(effectiveFile, oc));
+        } else {
+            new Command("oc", "apply", "-f", effectiveFile.toString(), "--namespace", oc.getNamespace()).runAndWait();
+            deployedResources = ManifestCache.get(effectiveFile, oc);
+        }
 
-        List<HasMetadata> deployedResources = oc.load(Files.newInputStream(tempFile)).get();
         awaitUtil.awaitReadiness(deployedResources);
 
-        return new AdditionalResourcesDeployed(url, tempFile, testsStatus);
+        return new AdditionalResourcesDeployed(url, file, temporaryFile, deployedResources, testsStatus, oc);
     }
 
-    @Override
-    public void close() throws Throwable {
+    String url() {
+        return url;
+    }
+
+    String namespace() {
+        return namespace;
+    }
+
+    // a single request per resource, which is much cheaper than awaiting readiness
+    Status status(OpenShiftClient oc) {
+        OpenShiftClient namespacedClient = oc.adapt(NamespacedOpenShiftClient.class).inNamespace(namespace);
+        Status result = Status.READY;
+        for (HasMetadata resource : resources) {
+            HasMetadata current = namespacedClient.resource(resource).fromServer().get();
+            if (current == null) {
+                return Status.MISSING;
+            }
+            if (ReadinessUtil.isReadinessApplicable(current) && !ReadinessUtil.isReady(current)) {
+                result = Status.NOT_READY;
+            }
+        }
+        return result;
+    }
+
+    void awaitReadiness(AwaitUtil awaitUtil) {
+        awaitUtil.awaitReadiness(resources);
+    }
+
+    void undeploy() throws IOException, InterruptedException, OpenShiftTestException {
         if (RetainOnFailure.isEnabled() && testsStatus.failed) {
             return;
         }
 
+        undeploy(oc);
+    }
+
+    // shared resources outlive the test class that deployed them, so they are undeployed using a different client
+    void undeploy(OpenShiftClient oc) throws IOException, InterruptedException, OpenShiftTestException {
         System.out.println(ansi().a("undeploying ").fgYellow().a(url).reset());
-        new Command("oc", "delete", "-f", file.toString(), "--ignore-not-found").runAndWait();
-        Files.delete(file);
+        if (ResourcesApplier.isEnabled()) {
+            new ResourcesApplier(oc.adapt(NamespacedOpenShiftClient.class).inNamespace(namespace)).delete(resources);
+        } else {
+            new Command("oc", "delete", "-f", file.toString(), "--namespace", namespace, "--ignore-not-found")
+                    .runAndWait();
+        }
+        if (temporaryFile) {
+            Files.delete(file);
+            ManifestCache.evict(file);
+        }
     }
 }
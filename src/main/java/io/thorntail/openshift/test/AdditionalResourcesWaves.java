@@ -0,0 +1,113 @@
+package io.thorntail.openshift.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// see AdditionalResources.wave()
+final class AdditionalResourcesWaves {
+    /**
+     * Returns the waves in deployment order: each resource without a wave forms a wave on its own
+     * (in the order of annotations), followed by the explicit waves in ascending order.
+     */
+    static List<List<AdditionalResources>> of(AdditionalResources[] annotations) throws OpenShiftTestException {
+        List<List<AdditionalResources>> result = new ArrayList<>();
+        Map<Integer, List<AdditionalResources>> waves = new TreeMap<>();
+        for (AdditionalResources annotation : annotations) {
+            if (annotation.wave() == AdditionalResources.NO_WAVE) {
+                result.add(Collections.singletonList(annotation));
+            } else if (annotation.wave() < 0) {
+                throw new OpenShiftTestException("@AdditionalResources(\"" + annotation.value()
+                        + "\") has negative wave " + annotation.wave());
+            } else {
+                waves.computeIfAbsent(annotation.wave(), ignored -> new ArrayList<>()).add(annotation);
+            }
+        }
+        result.addAll(waves.values());
+        return result;
+    }
+
+    interface Action<T, R> {
+        R run(T item) throws Exception;
+    }
+
+    /**
+     * Runs the action for all items concurrently and waits for all of them to finish, even if some fail.
+     * Results of successful actions are added to {@code results} (in the order of items), so that the caller
+     * can clean up after a partial failure. If some actions fail, the first failure is thrown
+     * with the others suppressed. A single item is processed on the calling thread.
+     */
+    static <T, R> void runConcurrently(List<T> items, Action<T, R> action, List<R> results) throws Exception {
+        if (items.size() == 1) {
+            results.add(action.run(items.get(0)));
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(items.size(), runnable -> {
+            Thread thread = new Thread(runnable, "additional-resources");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<R>> futures = new ArrayList<>();
+            for (T item : items) {
+                futures.add(executor.submit(() -> action.run(item)));
+            }
+
+            OpenShiftTestException failure = null;
+            for (Future<R> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    OpenShiftTestException exception = new OpenShiftTestException(e.getCause().getMessage(), e.getCause());
+                    if (failure == null) {
+                        failure = exception;
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the action for all items of all waves, in reverse order of the waves (items of the same wave
+     * concurrently, see {@link #runConcurrently(List, Action, List)}). A failure in one wave doesn't prevent
+     * running the action for the remaining waves; the first failure is thrown at the end, with the others suppressed.
+     */
+    static <T, R> void runAllInReverse(List<List<T>> waves, Action<T, R> action) throws OpenShiftTestException {
+        OpenShiftTestException failure = null;
+        for (int i = waves.size() - 1; i >= 0; i--) {
+            try {
+                runConcurrently(waves.get(i), action, new ArrayList<>());
+            } catch (Exception e) {
+                // a single item is processed on the calling thread, so its exception isn't wrapped
+                OpenShiftTestException exception = e instanceof OpenShiftTestException
+                        ? (OpenShiftTestException) e
+                        : new OpenShiftTestException(e.getMessage(), e);
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private AdditionalResourcesWaves() {
+    }
+}
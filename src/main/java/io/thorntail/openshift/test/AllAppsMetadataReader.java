@@ -7,7 +7,6 @@ import io.fabric8.kubernetes.api.model.Probe;
 import io.fabric8.openshift.client.OpenShiftClient;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,7 +26,7 @@ final class AllAppsMetadataReader {
     }
 
     AllAppsMetadata read(Path yaml) throws IOException {
-        List<HasMetadata> resources = oc.load(Files.newInputStream(yaml)).get();
+        List<HasMetadata> resources = ManifestCache.get(yaml, oc);
 
         List<AppMetadata> result = new ArrayList<>();
         for (HasMetadata resource : resources) {
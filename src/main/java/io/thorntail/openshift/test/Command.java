@@ -1,24 +1,58 @@
 package io.thorntail.openshift.test;
 
-import java.io.BufferedReader;
+import io.thorntail.openshift.test.jfr.JfrEvents;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.nio.file.Files;
+import java.lang.reflect.Method;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.function.BiConsumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 
 import static org.fusesource.jansi.Ansi.ansi;
 
 public class Command {
+    // each running command occupies one thread, which consumes its output and then waits for it to exit
+    // there's no queue: a command whose output isn't consumed could block on a full pipe, so when all threads
+    // are busy, the thread that starts the command consumes its output itself (and `runAsync` blocks)
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(16, 16, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "command");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "command-timeouts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     private final String description;
     private final List<String> command;
 
-    private BiConsumer<String, InputStream> outputConsumer = consoleOutput();
+    // if set, the output is redirected to the file directly by the operating system
+    private Path outputFile;
+    private List<OutputSink> outputSinks = Collections.singletonList(OutputSink.console());
+    private Duration timeout = Duration.ofMinutes(DefaultTimeout.getMinutes());
 
     public Command(String... command) {
         this(Arrays.asList(command));
@@ -30,17 +64,38 @@ public class Command {
     }
 
     public Command outputToFile(Path file) {
-        outputConsumer = fileOutput(file);
+        outputFile = file;
+        outputSinks = Collections.emptyList();
         return this;
     }
 
     public Command outputToConsole() {
-        outputConsumer = consoleOutput();
-        return this;
+        return outputTo(OutputSink.console());
     }
 
+    /**
+     * The output is appended to given {@code StringBuilder} line by line, without line terminators.
+     * The output is complete when the command finishes.
+     */
     public Command outputToString(StringBuilder output) {
-        outputConsumer = stringOutput(output);
+        return outputTo(new OutputSink.StringSink(output));
+    }
+
+    /**
+     * The output is sent to all given sinks at the same time, e.g. to a file and to the console.
+     */
+    public Command outputTo(OutputSink... sinks) {
+        outputFile = null;
+        outputSinks = Arrays.asList(sinks);
+        return this;
+    }
+
+    /**
+     * If the command doesn't finish in given time, it is killed (including its child processes, if the JVM
+     * allows that) and considered failed. By default, the {@linkplain DefaultTimeout default timeout} is used.
+     */
+    public Command timeout(Duration timeout) {
+        this.timeout = timeout;
         return this;
     }
 
@@ -52,57 +107,119 @@ public class Command {
     }
 
     public void runAndWait() throws IOException, InterruptedException {
-        System.out.println(ansi().a("running ").fgYellow().a(String.join(" ", command)).reset());
-        Process process = new ProcessBuilder()
-                .redirectErrorStream(true)
-                .command(command)
-                .directory(new File(".").getAbsoluteFile())
-                .start();
-
-        new Thread(() -> {
-            outputConsumer.accept(description, process.getInputStream());
-        }, "stdout consumer for command " + description).start();
-
-        int result = process.waitFor();
-        if (result != 0) {
-            throw new RuntimeException(description + " failed (executed " + command + ", return code " + result + ")");
+        try {
+            runAsync().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
         }
     }
 
-    private static BiConsumer<String, InputStream> fileOutput(Path file) {
-        return (description, is) -> {
-            try (OutputStream outStream = Files.newOutputStream(file)) {
-                byte[] buffer = new byte[8 * 1024];
-                int bytesRead;
-                while ((bytesRead = is.read(buffer)) != -1) {
-                    outStream.write(buffer, 0, bytesRead);
+    /**
+     * Starts the command and returns immediately, unless too many commands are already running, in which case
+     * this method only returns when the command finishes. The returned future completes when the command finishes
+     * and its output is fully consumed. It completes exceptionally if the command can't be started,
+     * returns a non-zero exit code, or times out.
+     */
+    public CompletableFuture<Void> runAsync() {
+        System.out.println(ansi().a("running ").fgYellow().a(String.join(" ", command)).reset());
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        IntConsumer finished = JfrEvents.commandLaunched(command);
+
+        Process process;
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder()
+                    .redirectErrorStream(true)
+                    .command(command)
+                    .directory(new File(".").getAbsoluteFile());
+            if (outputFile != null) {
+                processBuilder.redirectOutput(outputFile.toFile());
+            }
+            process = processBuilder.start();
+        } catch (IOException e) {
+            finished.accept(-1);
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> killer = TIMEOUTS.schedule(() -> {
+            timedOut.set(true);
+            destroyProcessTree(process);
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        EXECUTOR.execute(() -> {
+            try {
+                // returns when the output ends, which happens when the process exits (or is killed)
+                consumeOutput(process.getInputStream());
+                int exitCode = process.waitFor();
+                killer.cancel(false);
+                finished.accept(exitCode);
+
+                if (timedOut.get()) {
+                    result.completeExceptionally(new RuntimeException(description + " timed out (executed "
+                            + command + ", timeout " + timeout + ")"));
+                } else if (exitCode != 0) {
+                    result.completeExceptionally(new RuntimeException(description + " failed (executed "
+                            + command + ", return code " + exitCode + ")"));
+                } else {
+                    result.complete(null);
                 }
-            } catch (IOException ignored) {
+            } catch (Throwable e) {
+                finished.accept(-1);
+                killer.cancel(false);
+                destroyProcessTree(process);
+                result.completeExceptionally(e);
             }
-        };
+        });
+
+        return result;
     }
 
-    private static BiConsumer<String, InputStream> consoleOutput() {
-        return (description, is) -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    System.out.println(ansi().fgCyan().a(description).reset().a("> ").a(line));
+    private static void destroyProcessTree(Process process) {
+        try {
+            // ProcessHandle is only available since Java 9
+            Method descendants = Process.class.getMethod("descendants");
+            Method destroyForcibly = Class.forName("java.lang.ProcessHandle").getMethod("destroyForcibly");
+            ((Stream<?>) descendants.invoke(process)).forEach(handle -> {
+                try {
+                    destroyForcibly.invoke(handle);
+                } catch (ReflectiveOperationException ignored) {
                 }
-            } catch (IOException ignored) {
-            }
-        };
+            });
+        } catch (ReflectiveOperationException ignored) {
+            // on Java 8, only the process itself can be killed
+        }
+        process.destroyForcibly();
     }
 
-    private static BiConsumer<String, InputStream> stringOutput(StringBuilder output) {
-        return (description, is) -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line);
+    private void consumeOutput(InputStream output) {
+        try (InputStream is = output) {
+            for (OutputSink sink : outputSinks) {
+                sink.start(description);
+            }
+            byte[] buffer = new byte[8 * 1024];
+            int bytesRead;
+            while ((bytesRead = is.read(buffer)) != -1) {
+                for (OutputSink sink : outputSinks) {
+                    sink.write(buffer, 0, bytesRead);
                 }
-            } catch (IOException ignored) {
             }
-        };
+        } catch (IOException ignored) {
+        } finally {
+            for (OutputSink sink : outputSinks) {
+                try {
+                    sink.finish();
+                } catch (IOException ignored) {
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,19 @@
+package io.thorntail.openshift.test;
+
+import io.thorntail.openshift.test.util.DiscoveryUtil;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+// one instance per test class, stops the informers and closes the route clients of the test class's DiscoveryUtil
+// when the test class finishes
+final class DiscoveryUtilResource implements CloseableResource {
+    final DiscoveryUtil discovery;
+
+    DiscoveryUtilResource(DiscoveryUtil discovery) {
+        this.discovery = discovery;
+    }
+
+    @Override
+    public void close() {
+        discovery.close();
+    }
+}
@@ -0,0 +1,174 @@
+package io.thorntail.openshift.test;
+
+import io.thorntail.openshift.test.config.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+// on-disk cache of files downloaded over HTTP(S), shared by all test runs on the machine
+// - `content/<sha-256>` contains the downloaded files, named by the hash of their content, so they never change
+// - `urls/<sha-256 of the URL>.properties` points to the current content of the URL, with its ETag and Last-Modified
+// each URL is revalidated with the server (using a conditional request) once per test run
+// when the server can't be reached, the cached content is used
+final class DownloadCache {
+    static final String DIRECTORY_CONFIG_KEY = "ts.download-cache-dir";
+    static final String DISABLED_CONFIG_KEY = "ts.disable-download-cache";
+
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    // URL -> content, for URLs already revalidated in this test run
+    private static final Map<String, Path> VALIDATED = new ConcurrentHashMap<>();
+
+    static boolean isEnabled() {
+        return !Config.get().getAsBoolean(DISABLED_CONFIG_KEY, false);
+    }
+
+    static boolean isCacheable(String url) {
+        return url.startsWith("http://") || url.startsWith("https://");
+    }
+
+    /**
+     * Returns a file with the content of given HTTP(S) URL. The file is shared and must not be modified.
+     */
+    static Path get(String url) throws IOException {
+        Path result = VALIDATED.get(url);
+        if (result != null && Files.exists(result)) {
+            return result;
+        }
+
+        // concurrent downloads of the same URL are harmless, the cache is only ever updated with atomic moves
+        result = revalidate(url);
+        VALIDATED.put(url, result);
+        return result;
+    }
+
+    // makes the next `get` of each URL revalidate it again, as if a new test run started; only for tests
+    static void forgetValidated() {
+        VALIDATED.clear();
+    }
+
+    private static Path revalidate(String url) throws IOException {
+        Path directory = directory();
+        Path metadataFile = directory.resolve("urls").resolve(ContentHash.of(url.getBytes(StandardCharsets.UTF_8)) + ".properties");
+
+        Properties metadata = new Properties();
+        Path cached = null;
+        if (Files.exists(metadataFile)) {
+            try (Reader reader = Files.newBufferedReader(metadataFile, StandardCharsets.UTF_8)) {
+                metadata.load(reader);
+            }
+            Path content = directory.resolve("content").resolve(metadata.getProperty("content", ""));
+            if (Files.isRegularFile(content)) {
+                cached = content;
+            }
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        if (cached != null && metadata.getProperty("etag") != null) {
+            connection.setRequestProperty("If-None-Match", metadata.getProperty("etag"));
+        }
+        if (cached != null && metadata.getProperty("last-modified") != null) {
+            connection.setRequestProperty("If-Modified-Since", metadata.getProperty("last-modified"));
+        }
+
+        try {
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                return cached;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Couldn't download " + url + ": HTTP " + status);
+            }
+
+            Path content = download(connection, directory.resolve("content"));
+
+            Properties newMetadata = new Properties();
+            newMetadata.setProperty("url", url);
+            newMetadata.setProperty("content", content.getFileName().toString());
+            if (connection.getHeaderField("ETag") != null) {
+                newMetadata.setProperty("etag", connection.getHeaderField("ETag"));
+            }
+            if (connection.getHeaderField("Last-Modified") != null) {
+                newMetadata.setProperty("last-modified", connection.getHeaderField("Last-Modified"));
+            }
+            writeAtomically(newMetadata, metadataFile);
+
+            System.out.println(ansi().a("downloaded ").fgYellow().a(url).reset());
+            return content;
+        } catch (IOException e) {
+            if (cached != null) {
+                System.out.println(ansi().a("couldn't revalidate ").fgYellow().a(url).reset()
+                        .a(", using cached content: ").a(e.getMessage()));
+                return cached;
+            }
+            throw e;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static Path download(HttpURLConnection connection, Path contentDirectory) throws IOException {
+        Files.createDirectories(contentDirectory);
+        Path temp = Files.createTempFile(contentDirectory, "download", ".tmp");
+        try {
+            MessageDigest digest = ContentHash.sha256();
+            try (InputStream in = connection.getInputStream();
+                 OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                byte[] buffer = new byte[8 * 1024];
+                int bytesRead;
+                while ((bytesRead = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, bytesRead);
+                }
+            }
+
+            Path content = contentDirectory.resolve(ContentHash.hex(digest.digest()));
+            Files.move(temp, content, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return content;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeAtomically(Properties properties, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), "metadata", ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Path directory() {
+        String directory = Config.get().getAsString(DIRECTORY_CONFIG_KEY, null);
+        if (directory != null) {
+            return Paths.get(directory);
+        }
+        return Paths.get(System.getProperty("user.home"), ".thorntail-openshift-test", "download-cache");
+    }
+
+    private DownloadCache() {
+    }
+}
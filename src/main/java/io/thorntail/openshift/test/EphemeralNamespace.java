@@ -2,13 +2,21 @@ package io.thorntail.openshift.test;
 
 import io.thorntail.openshift.test.config.Config;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 final class EphemeralNamespace {
     static final String CONFIG_KEY = "ts.use-ephemeral-namespaces";
 
     static boolean isEnabled() {
-        return Config.get().getAsBoolean(CONFIG_KEY, false);
+        // test classes running in parallel can't share a namespace
+        return Config.get().getAsBoolean(CONFIG_KEY, false) || ParallelClasses.isEnabled();
     }
 
     static boolean isDisabled() {
@@ -23,6 +31,14 @@ final class EphemeralNamespace {
         return new EphemeralNamespace(name);
     }
 
+    // image streams pointing to the original namespace where builds were performed
+    static List<Path> findImageStreams() throws IOException {
+        try (Stream<Path> imagestreams = Files.find(Paths.get("target"), 1,
+                (path, ignored) -> path.getFileName().toString().endsWith("-is.yml"))) {
+            return imagestreams.collect(Collectors.toList());
+        }
+    }
+
     final String name;
 
     private EphemeralNamespace(String name) {
@@ -0,0 +1,140 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.openshift.api.model.ProjectRequestBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.thorntail.openshift.test.config.Config;
+import io.thorntail.openshift.test.jfr.JfrEvents;
+import io.thorntail.openshift.test.util.PollingPolicy;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+// single instance of this class is shared for the entire test run
+// keeps a number of ephemeral namespaces (with image streams already applied) prepared in the background,
+// so that a test class doesn't have to wait for the namespace to be created
+final class EphemeralNamespacePool implements CloseableResource {
+    static final String CONFIG_KEY = "ts.ephemeral-namespace-pool-size";
+
+    static boolean isEnabled() {
+        return size() > 0;
+    }
+
+    private static int size() {
+        return Config.get().getAsInt(CONFIG_KEY, 0);
+    }
+
+    static EphemeralNamespacePool create(OpenShiftClientResource sharedClient) {
+        return new EphemeralNamespacePool(sharedClient.retain(), size());
+    }
+
+    // the namespace that was current when the pool was created, which is the namespace to return to
+    final String originalNamespace;
+
+    private final OpenShiftClientResource clientResource;
+    private final ExecutorService executor;
+    private final BlockingQueue<Future<EphemeralNamespace>> prepared = new LinkedBlockingQueue<>();
+
+    private EphemeralNamespacePool(OpenShiftClientResource clientResource, int size) {
+        this.clientResource = clientResource;
+        this.originalNamespace = clientResource.client.getNamespace();
+        this.executor = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "ephemeral-namespace-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (int i = 0; i < size; i++) {
+            prepareOne();
+        }
+    }
+
+    /**
+     * Hands out a prepared namespace, waiting for it if necessary, and starts preparing a replacement.
+     */
+    EphemeralNamespace take() throws OpenShiftTestException, InterruptedException {
+        Future<EphemeralNamespace> next = prepared.take();
+        prepareOne();
+        try {
+            return next.get();
+        } catch (ExecutionException e) {
+            throw new OpenShiftTestException("Couldn't prepare ephemeral namespace", e.getCause());
+        }
+    }
+
+    /**
+     * Deletes a namespace that was previously handed out, asynchronously.
+     */
+    void release(EphemeralNamespace namespace) {
+        try {
+            executor.submit(() -> delete(namespace.name));
+        } catch (RejectedExecutionException e) {
+            // the pool was already closed, which happens when background teardown releases the namespace
+            // at the end of the test run
+            delete(namespace.name);
+        }
+    }
+
+    private void prepareOne() {
+        prepared.add(executor.submit(() -> {
+            EphemeralNamespace namespace = EphemeralNamespace.newWithRandomName();
+            OpenShiftClient oc = clientResource.client;
+
+            System.out.println(ansi().a("preparing ephemeral namespace ").fgYellow().a(namespace.name).reset());
+            oc.projectrequests().create(new ProjectRequestBuilder()
+                    .withNewMetadata().withName(namespace.name).endMetadata()
+                    .build());
+
+            // the permissions to the new project may take a moment to propagate
+            PollingPolicy.forPhase(PollingPolicy.EPHEMERAL_NAMESPACE).await()
+                    .ignoreExceptions().atMost(DefaultTimeout.getMinutes(), TimeUnit.MINUTES).until(
+                    JfrEvents.recordPolls("ephemeral namespace " + namespace.name + " to become accessible", () -> {
+                        oc.imageStreams().inNamespace(namespace.name).list();
+                        return true;
+                    }));
+
+            for (Path yaml : EphemeralNamespace.findImageStreams()) {
+                try (InputStream is = Files.newInputStream(yaml)) {
+                    oc.load(is).inNamespace(namespace.name).createOrReplace();
+                }
+            }
+
+            return namespace;
+        }));
+    }
+
+    private void delete(String namespace) {
+        System.out.println(ansi().a("dropping ephemeral namespace ").fgYellow().a(namespace).reset());
+        clientResource.client.projects().withName(namespace).delete();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        List<Future<EphemeralNamespace>> unused = new ArrayList<>();
+        prepared.drainTo(unused);
+        for (Future<EphemeralNamespace> future : unused) {
+            try {
+                delete(future.get().name);
+            } catch (ExecutionException ignored) {
+                // preparation failed, nothing to delete
+            }
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(DefaultTimeout.getMinutes(), TimeUnit.MINUTES);
+        clientResource.close();
+    }
+}
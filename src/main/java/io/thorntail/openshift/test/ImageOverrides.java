@@ -10,27 +10,65 @@ import io.fabric8.openshift.api.model.TagReferenceBuilder;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.thorntail.openshift.test.config.Config;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
+// the rewritten manifests are written to `target/image-overrides`, named by the hash of the original content,
+// so that the original file is never modified and each distinct manifest is only rewritten once per test run
 final class ImageOverrides {
     static final String CONFIG_KEY = "ts.image-overrides";
+    static final String STREAMING_CONFIG_KEY = "ts.image-overrides-streaming";
 
-    static void apply(Path yaml, OpenShiftClient oc) throws IOException {
-        String configFile = Config.get().getAsString(CONFIG_KEY, null);
-        if (configFile == null) {
-            return;
+    private static final Path OUTPUT_DIRECTORY = Paths.get("target", "image-overrides");
+
+    // original content hash -> rewritten file
+    private static final Map<String, Path> REWRITTEN = new ConcurrentHashMap<>();
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private static volatile ImageOverridesConfig config;
+
+    /**
+     * Returns the file that should be deployed instead of given {@code yaml}. That is given file itself
+     * if there are no image overrides, or a rewritten copy.
+     */
+    static Path apply(Path yaml, OpenShiftClient oc) throws IOException {
+        ImageOverridesConfig config = config();
+        if (config == null) {
+            return yaml;
+        }
+
+        String hash = ContentHash.of(yaml);
+        Path rewritten = REWRITTEN.get(hash);
+        if (rewritten != null && Files.exists(rewritten)) {
+            return rewritten;
         }
 
-        ImageOverridesConfig config = ImageOverridesConfig.load(Paths.get(configFile));
+        // test classes running in parallel may apply the same file, it must not be rewritten while being deployed
+        synchronized (LOCKS.computeIfAbsent(hash, ignored -> new Object())) {
+            rewritten = REWRITTEN.get(hash);
+            if (rewritten != null && Files.exists(rewritten)) {
+                return rewritten;
+            }
+
+            rewritten = OUTPUT_DIRECTORY.resolve(hash + ".yml");
+            Files.createDirectories(OUTPUT_DIRECTORY);
+            if (Config.get().getAsBoolean(STREAMING_CONFIG_KEY, false)) {
+                StreamingImageOverrides.rewrite(yaml, rewritten, config);
+            } else {
+                rewrite(yaml, rewritten, config, oc);
+            }
+            REWRITTEN.put(hash, rewritten);
+            return rewritten;
+        }
+    }
 
-        List<HasMetadata> objs = oc.load(Files.newInputStream(yaml))
+    static void rewrite(Path yaml, Path rewritten, ImageOverridesConfig config, OpenShiftClient oc) throws IOException {
+        List<HasMetadata> objs = oc.resourceList(ManifestCache.get(yaml, oc))
                 .accept(new TypedVisitor<ContainerBuilder>() {
                     @Override
                     public void visit(ContainerBuilder c) {
@@ -60,43 +98,28 @@ final class ImageOverrides {
 
         KubernetesList list = new KubernetesList();
         list.setItems(objs);
-        Serialization.yamlMapper().writeValue(Files.newOutputStream(yaml), list);
+        byte[] content = Serialization.yamlMapper().writeValueAsBytes(list);
+        Files.write(rewritten, content);
+        ManifestCache.put(rewritten, content, objs);
     }
 
-    private static class ImageOverridesConfig {
-        private final Map<String, String> data;
-
-        static ImageOverridesConfig load(Path path) throws IOException {
-            try (BufferedReader reader = Files.newBufferedReader(path)) {
-                Map<String, String> data = reader.lines()
-                        .map(String::trim)
-                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
-                        .map(line -> line.split("=", 2))
-                        .collect(Collectors.toMap(splitLine -> splitLine[0].trim(), splitLine -> splitLine[1].trim()));
-                return new ImageOverridesConfig(data);
-            }
-        }
-
-        private ImageOverridesConfig(Map<String, String> data) {
-            this.data = data;
+    // the configuration file is only read once per test run
+    private static ImageOverridesConfig config() throws IOException {
+        String configFile = Config.get().getAsString(CONFIG_KEY, null);
+        if (configFile == null) {
+            return null;
         }
 
-        String overrideFor(String image) {
-            if (data.containsKey(image)) {
-                return data.get(image);
+        ImageOverridesConfig result = config;
+        if (result == null) {
+            synchronized (ImageOverrides.class) {
+                result = config;
+                if (result == null) {
+                    result = ImageOverridesConfig.load(Paths.get(configFile));
+                    config = result;
+                }
             }
-
-            String imageWithoutTag = image;
-            if (image.contains(":")) {
-                imageWithoutTag = image.substring(0, image.lastIndexOf(":"));
-            }
-
-            if (data.containsKey(imageWithoutTag)) {
-                return data.get(imageWithoutTag);
-            }
-
-            return image;
         }
-
+        return result.isEmpty() ? null : result;
     }
 }
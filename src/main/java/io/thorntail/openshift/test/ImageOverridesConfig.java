@@ -0,0 +1,173 @@
+package io.thorntail.openshift.test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// compiled form of the image overrides file, see the README for the format
+// rules without `*` are exact rules, they are looked up in hash maps
+// rules with `*` are glob rules, they are stored in a trie keyed by the literal prefix of the source
+// (the part before first `*`), so that only rules whose prefix matches the image are considered
+// exact rules win over glob rules, and among glob rules, the longest literal prefix wins
+final class ImageOverridesConfig {
+    private final Map<String, String> exact = new HashMap<>();
+    private final TrieNode globs = new TrieNode();
+
+    static ImageOverridesConfig load(Path path) throws IOException {
+        ImageOverridesConfig result = new ImageOverridesConfig();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] splitLine = line.split("=", 2);
+                if (splitLine.length != 2) {
+                    throw new IOException("Invalid line in " + path + ": " + line);
+                }
+                result.add(splitLine[0].trim(), splitLine[1].trim());
+            }
+        }
+        result.globs.sortRules();
+        return result;
+    }
+
+    private ImageOverridesConfig() {
+    }
+
+    private void add(String source, String target) {
+        int firstWildcard = source.indexOf('*');
+        if (firstWildcard < 0) {
+            exact.put(source, target);
+            return;
+        }
+
+        String literalPrefix = source.substring(0, firstWildcard);
+        TrieNode node = globs;
+        for (int i = 0; i < literalPrefix.length(); i++) {
+            node = node.children.computeIfAbsent(literalPrefix.charAt(i), ignored -> new TrieNode());
+        }
+        node.rules.add(new GlobRule(source, target));
+    }
+
+    String overrideFor(String image) {
+        String result = exact.get(image);
+        if (result != null) {
+            return result;
+        }
+
+        // a rule without tag matches all tags
+        String imageWithoutTag = withoutTag(image);
+        if (imageWithoutTag != null) {
+            result = exact.get(imageWithoutTag);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        // deepest nodes have the longest literal prefix
+        List<TrieNode> candidates = new ArrayList<>();
+        TrieNode node = globs;
+        candidates.add(node);
+        for (int i = 0; i < image.length(); i++) {
+            node = node.children.get(image.charAt(i));
+            if (node == null) {
+                break;
+            }
+            candidates.add(node);
+        }
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            for (GlobRule rule : candidates.get(i).rules) {
+                result = rule.apply(image);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+
+        return image;
+    }
+
+    boolean isEmpty() {
+        return exact.isEmpty() && globs.isEmpty();
+    }
+
+    // returns null if the image has no tag
+    private static String withoutTag(String image) {
+        int lastColon = image.lastIndexOf(':');
+        // a colon before the last slash separates the registry port
+        if (lastColon < 0 || lastColon < image.lastIndexOf('/')) {
+            return null;
+        }
+        return image.substring(0, lastColon);
+    }
+
+    private static final class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        final List<GlobRule> rules = new ArrayList<>();
+
+        void sortRules() {
+            // more specific (longer) patterns first
+            rules.sort(Comparator.comparingInt((GlobRule rule) -> rule.source.length()).reversed());
+            children.values().forEach(TrieNode::sortRules);
+        }
+
+        boolean isEmpty() {
+            return rules.isEmpty() && children.isEmpty();
+        }
+    }
+
+    // each `*` in the source matches any sequence of characters
+    // each `*` in the target is replaced by what the corresponding `*` in the source matched
+    private static final class GlobRule {
+        final String source;
+        final Pattern pattern;
+        final String target;
+
+        GlobRule(String source, String target) {
+            this.source = source;
+            this.target = target;
+
+            StringBuilder regex = new StringBuilder();
+            int start = 0;
+            int wildcard;
+            while ((wildcard = source.indexOf('*', start)) >= 0) {
+                regex.append(Pattern.quote(source.substring(start, wildcard))).append("(.*)");
+                start = wildcard + 1;
+            }
+            regex.append(Pattern.quote(source.substring(start)));
+            this.pattern = Pattern.compile(regex.toString());
+        }
+
+        // returns null if the rule doesn't match
+        String apply(String image) {
+            Matcher matcher = pattern.matcher(image);
+            if (!matcher.matches()) {
+                return null;
+            }
+
+            StringBuilder result = new StringBuilder();
+            int group = 1;
+            for (int i = 0; i < target.length(); i++) {
+                char c = target.charAt(i);
+                if (c == '*' && group <= matcher.groupCount()) {
+                    result.append(matcher.group(group));
+                    group++;
+                } else {
+                    result.append(c);
+                }
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// parsed form of resource files (such as openshift.yml), so that each file is parsed only once, even though
+// it's used several times (image overrides, app metadata, apply, delete)
+// the file content is hashed on each access, so changes are always detected (which is not guaranteed
+// with the last modified time, as its granularity can be too coarse)
+// the cached objects are shared, callers must not modify them
+final class ManifestCache {
+    private static final Map<Path, Entry> CACHE = new ConcurrentHashMap<>();
+
+    static List<HasMetadata> get(Path file, OpenShiftClient oc) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        String hash = ContentHash.of(content);
+
+        Entry entry = CACHE.get(key(file));
+        if (entry != null && entry.hash.equals(hash)) {
+            return entry.resources;
+        }
+
+        List<HasMetadata> resources = oc.load(new ByteArrayInputStream(content)).get();
+        return put(file, hash, resources);
+    }
+
+    // for when the caller has just written the file and already has the parsed form
+    static List<HasMetadata> put(Path file, byte[] content, List<HasMetadata> resources) {
+        return put(file, ContentHash.of(content), resources);
+    }
+
+    private static List<HasMetadata> put(Path file, String hash, List<HasMetadata> resources) {
+        List<HasMetadata> unmodifiable = Collections.unmodifiableList(resources);
+        CACHE.put(key(file), new Entry(hash, unmodifiable));
+        return unmodifiable;
+    }
+
+    static void evict(Path file) {
+        CACHE.remove(key(file));
+    }
+
+    private static Path key(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    private static final class Entry {
+        final String hash;
+        final List<HasMetadata> resources;
+
+        Entry(String hash, List<HasMetadata> resources) {
+            this.hash = hash;
+            this.resources = resources;
+        }
+    }
+
+    private ManifestCache() {
+    }
+}
@@ -1,27 +1,80 @@
 package io.thorntail.openshift.test;
 
+import io.fabric8.kubernetes.client.utils.HttpClientUtils;
 import io.fabric8.openshift.client.DefaultOpenShiftClient;
-import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.NamespacedOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftConfig;
 import io.fabric8.openshift.client.OpenShiftConfigBuilder;
+import io.thorntail.openshift.test.config.Config;
+import io.thorntail.openshift.test.jfr.JfrEvents;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
 import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
 
+import java.util.concurrent.TimeUnit;
+
+// single instance of this class is shared for the entire test run (there's one connection pool and dispatcher,
+// and kubeconfig is only loaded once); test classes use views of the shared client in their own namespace
+// other objects shared for the entire test run that need the client (even when they're being closed) `retain` it,
+// because the order in which the root store closes its objects is unspecified; the client is only closed
+// after all of them `close` it
 final class OpenShiftClientResource implements CloseableResource {
-    final OpenShiftClient client;
+    static final String MAX_CONCURRENT_REQUESTS_CONFIG_KEY = "ts.client.max-concurrent-requests";
+    static final String MAX_CONCURRENT_REQUESTS_PER_HOST_CONFIG_KEY = "ts.client.max-concurrent-requests-per-host";
+    static final String CONNECTION_POOL_SIZE_CONFIG_KEY = "ts.client.connection-pool-size";
+    static final String REQUEST_TIMEOUT_CONFIG_KEY = "ts.client.request-timeout-ms";
+    static final String WATCH_RECONNECT_INTERVAL_CONFIG_KEY = "ts.client.watch-reconnect-interval-ms";
+    static final String WEBSOCKET_TIMEOUT_CONFIG_KEY = "ts.client.websocket-timeout-ms";
+
+    // namespaced, so that views in other namespaces can be created using `inNamespace`
+    final NamespacedOpenShiftClient client;
+
+    private int users = 1;
 
     static OpenShiftClientResource createDefault() {
         OpenShiftConfig config = new OpenShiftConfigBuilder()
                 .withTrustCerts(true)
                 .build();
-        return new OpenShiftClientResource(new DefaultOpenShiftClient(config));
+
+        // if not configured, the values from kubeconfig or Fabric8 defaults are kept
+        Config tunables = Config.get();
+        config.setMaxConcurrentRequests(tunables.getAsInt(MAX_CONCURRENT_REQUESTS_CONFIG_KEY,
+                config.getMaxConcurrentRequests()));
+        config.setMaxConcurrentRequestsPerHost(tunables.getAsInt(MAX_CONCURRENT_REQUESTS_PER_HOST_CONFIG_KEY,
+                config.getMaxConcurrentRequestsPerHost()));
+        config.setRequestTimeout(tunables.getAsInt(REQUEST_TIMEOUT_CONFIG_KEY, config.getRequestTimeout()));
+        config.setWatchReconnectInterval(tunables.getAsInt(WATCH_RECONNECT_INTERVAL_CONFIG_KEY,
+                config.getWatchReconnectInterval()));
+        config.setWebsocketTimeout(tunables.getAsInt(WEBSOCKET_TIMEOUT_CONFIG_KEY, (int) config.getWebsocketTimeout()));
+
+        OkHttpClient httpClient = HttpClientUtils.createHttpClient(config);
+        int connectionPoolSize = tunables.getAsInt(CONNECTION_POOL_SIZE_CONFIG_KEY, 0);
+        if (connectionPoolSize > 0) {
+            httpClient = httpClient.newBuilder()
+                    .connectionPool(new ConnectionPool(connectionPoolSize, 5, TimeUnit.MINUTES))
+                    .build();
+        }
+
+        return new OpenShiftClientResource(new DefaultOpenShiftClient(JfrEvents.recordApiRequests(httpClient), config));
     }
 
-    private OpenShiftClientResource(OpenShiftClient client) {
+    private OpenShiftClientResource(NamespacedOpenShiftClient client) {
         this.client = client;
     }
 
+    synchronized OpenShiftClientResource retain() {
+        if (users == 0) {
+            throw new IllegalStateException("OpenShift client already closed, this is test framework bug");
+        }
+        users++;
+        return this;
+    }
+
     @Override
-    public void close() {
-        client.close();
+    public synchronized void close() {
+        users--;
+        if (users == 0) {
+            client.close();
+        }
     }
 }
@@ -1,8 +1,9 @@
 package io.thorntail.openshift.test;
 
-import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.openshift.client.NamespacedOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.restassured.RestAssured;
+import io.restassured.specification.RequestSpecification;
 import io.thorntail.openshift.test.config.Config;
 import io.thorntail.openshift.test.injection.InjectionPoint;
 import io.thorntail.openshift.test.injection.TestResource;
@@ -10,7 +11,9 @@ import io.thorntail.openshift.test.injection.WithName;
 import io.thorntail.openshift.test.util.AwaitUtil;
 import io.thorntail.openshift.test.util.DiscoveryUtil;
 import io.thorntail.openshift.test.util.OpenShiftUtil;
+import io.thorntail.openshift.test.util.RouteClient;
 import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
@@ -23,7 +26,6 @@ import org.junit.jupiter.api.extension.ParameterResolver;
 import org.junit.jupiter.api.extension.TestExecutionExceptionHandler;
 import org.junit.jupiter.api.extension.TestInstancePostProcessor;
 
-import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
@@ -40,17 +42,26 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.fusesource.jansi.Ansi.ansi;
 import static org.junit.platform.commons.util.AnnotationUtils.findAnnotatedFields;
 
-final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback,
+final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback,
         TestInstancePostProcessor, ParameterResolver,
         LifecycleMethodExecutionExceptionHandler, TestExecutionExceptionHandler {
 
+    private static final String CLASS_SPAN = Timeline.class.getName() + ".class";
+    private static final String TESTS_SPAN = Timeline.class.getName() + ".tests";
+
+    private static final String RESOURCES_YAML_CONFIG_KEY = "ts.resources-yaml";
+
     private static Path getResourcesYaml() {
+        String configured = Config.get().getAsString(RESOURCES_YAML_CONFIG_KEY, null);
+        if (configured != null) {
+            return Paths.get(configured);
+        }
         return Paths.get("target", "classes", "META-INF", "jkube", "openshift.yml");
     }
 
@@ -58,23 +69,87 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
         return context.getStore(Namespace.create(getClass()));
     }
 
+    // for objects shared across all test classes in the test run
+    private Store getRootStore(ExtensionContext context) {
+        return context.getRoot().getStore(Namespace.create(getClass()));
+    }
+
     private Optional<ManualApplicationDeployment> getManualDeploymentAnnotation(ExtensionContext context) {
         return context.getElement().map(it -> it.getAnnotation(ManualApplicationDeployment.class));
     }
 
-    private OpenShiftClient getOpenShiftClient(ExtensionContext context) {
-        OpenShiftClientResource clientResource = getStore(context).getOrComputeIfAbsent(
-                OpenShiftClientResource.class.getName(),
+    // the kept application is only reused when nothing else in the test class affects it, because neither
+    // additional resources nor customization methods are part of the manifest hash
+    private boolean shouldReuseDeployment(ExtensionContext context) {
+        return ReusableDeployment.isEnabled()
+                && !getManualDeploymentAnnotation(context).isPresent()
+                && context.getElement()
+                        .map(it -> it.getAnnotationsByType(AdditionalResources.class).length == 0)
+                        .orElse(true)
+                && !hasMethods(CustomizeApplicationDeployment.class, context)
+                && !hasMethods(CustomizeApplicationUndeployment.class, context);
+    }
+
+    private OpenShiftClientResource getSharedOpenShiftClient(ExtensionContext context) {
+        return getRootStore(context).getOrComputeIfAbsent(OpenShiftClientResource.class.getName(),
                 ignored -> OpenShiftClientResource.createDefault(),
                 OpenShiftClientResource.class);
-        return clientResource.client;
+    }
+
+    // a view of the shared client in the namespace of the test class
+    // it's not closed, because it shares the connection pool and dispatcher with the shared client
+    private OpenShiftClient getOpenShiftClient(ExtensionContext context) {
+        return getStore(context).getOrComputeIfAbsent(OpenShiftClient.class.getName(),
+                ignored -> {
+                    NamespacedOpenShiftClient sharedClient = getSharedOpenShiftClient(context).client;
+                    EphemeralNamespace ephemeralNamespace = getStore(context).get(EphemeralNamespace.class.getName(),
+                            EphemeralNamespace.class);
+                    return sharedClient.inNamespace(ephemeralNamespace != null
+                            ? ephemeralNamespace.name
+                            : sharedClient.getNamespace());
+                },
+                OpenShiftClient.class);
+    }
+
+    private EphemeralNamespacePool getEphemeralNamespacePool(ExtensionContext context) {
+        OpenShiftClientResource sharedClient = getSharedOpenShiftClient(context);
+        return getRootStore(context).getOrComputeIfAbsent(EphemeralNamespacePool.class.getName(),
+                ignored -> EphemeralNamespacePool.create(sharedClient),
+                EphemeralNamespacePool.class);
+    }
+
+    private ReusableDeployment getReusableDeployment(ExtensionContext context) {
+        OpenShiftClientResource sharedClient = getSharedOpenShiftClient(context);
+        return getRootStore(context).getOrComputeIfAbsent(ReusableDeployment.class.getName(),
+                ignored -> new ReusableDeployment(sharedClient),
+                ReusableDeployment.class);
+    }
+
+    private SharedAdditionalResources getSharedAdditionalResources(ExtensionContext context) {
+        OpenShiftClientResource sharedClient = getSharedOpenShiftClient(context);
+        return getRootStore(context).getOrComputeIfAbsent(SharedAdditionalResources.class.getName(),
+                ignored -> new SharedAdditionalResources(sharedClient),
+                SharedAdditionalResources.class);
+    }
+
+    private TeardownQueue getTeardownQueue(ExtensionContext context) {
+        OpenShiftClientResource sharedClient = getSharedOpenShiftClient(context);
+        return getRootStore(context).getOrComputeIfAbsent(TeardownQueue.class.getName(),
+                ignored -> new TeardownQueue(sharedClient),
+                TeardownQueue.class);
+    }
+
+    private TestOutputBuffering getTestOutputBuffering(ExtensionContext context) {
+        return getRootStore(context).getOrComputeIfAbsent(TestOutputBuffering.class.getName(),
+                ignored -> new TestOutputBuffering(),
+                TestOutputBuffering.class);
     }
 
     private DiscoveryUtil getDiscoveryUtil(ExtensionContext context) {
         OpenShiftClient oc = getOpenShiftClient(context);
-        return getStore(context).getOrComputeIfAbsent(DiscoveryUtil.class.getName(),
-                ignored -> new DiscoveryUtil(oc),
-                DiscoveryUtil.class);
+        return getStore(context).getOrComputeIfAbsent(DiscoveryUtilResource.class.getName(),
+                ignored -> new DiscoveryUtilResource(new DiscoveryUtil(oc)),
+                DiscoveryUtilResource.class).discovery;
     }
 
     private AllAppsMetadata getAllAppsMetadata(ExtensionContext context) {
@@ -102,12 +177,28 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
                 AllAppsMetadata.class);
     }
 
+    private Timeline getTimeline(ExtensionContext context) {
+        return getStore(context).getOrComputeIfAbsent(Timeline.class.getName(),
+                ignored -> {
+                    if (!TimelineRecorder.isEnabled()) {
+                        return Timeline.disabled();
+                    }
+                    TimelineRecorder recorder = getRootStore(context).getOrComputeIfAbsent(
+                            TimelineRecorder.class.getName(),
+                            ignored2 -> new TimelineRecorder(),
+                            TimelineRecorder.class);
+                    return new Timeline(recorder, context.getDisplayName());
+                },
+                Timeline.class);
+    }
+
     private AwaitUtil getAwaitUtil(ExtensionContext context) {
         OpenShiftClient oc = getOpenShiftClient(context);
         DiscoveryUtil discovery = getDiscoveryUtil(context);
         AllAppsMetadata metadata = getAllAppsMetadata(context);
+        Timeline timeline = getTimeline(context);
         return getStore(context).getOrComputeIfAbsent(AwaitUtil.class.getName(),
-                ignored -> new AwaitUtil(oc, discovery, metadata),
+                ignored -> new AwaitUtil(oc, discovery, metadata, timeline),
                 AwaitUtil.class);
     }
 
@@ -119,6 +210,14 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
                 OpenShiftUtil.class);
     }
 
+    // one list per wave
+    @SuppressWarnings("unchecked")
+    private List<List<AdditionalResourcesDeployed>> getDeployedAdditionalResources(ExtensionContext context) {
+        return getStore(context).getOrComputeIfAbsent(AdditionalResourcesDeployed.class.getName(),
+                ignored -> new ArrayList<List<AdditionalResourcesDeployed>>(),
+                List.class);
+    }
+
     private void initTestsStatus(ExtensionContext context) {
         getStore(context).put(TestsStatus.class.getName(), new TestsStatus());
     }
@@ -137,23 +236,57 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
     public void beforeAll(ExtensionContext context) throws Exception {
         initTestsStatus(context);
 
+        getStore(context).put(CLASS_SPAN, getTimeline(context).span("test class"));
+
         try {
             doBeforeAll(context);
         } catch (Exception e) {
             getTestsStatus(context).failed = true;
             throw e;
         }
+
+        getStore(context).put(TESTS_SPAN, getTimeline(context).span("tests"));
     }
 
     private void doBeforeAll(ExtensionContext context) throws Exception {
         System.out.println("---------- OpenShiftTest set up ----------");
 
-        createEphemeralNamespaceIfNecessary(context);
+        Timeline timeline = getTimeline(context);
+
+        // the shared client must be created before the current namespace is changed for the first time,
+        // its default namespace is then the namespace of test classes that don't use ephemeral namespaces
+        getSharedOpenShiftClient(context);
+
+        Timeline.Span namespaceCreation = timeline.span("namespace creation");
+        try {
+            createEphemeralNamespaceIfNecessary(context);
+        } finally {
+            namespaceCreation.close();
+        }
+
+        if (TeardownQueue.isEnabled()) {
+            // the previous test class may still be undeploying from the same namespace
+            getTeardownQueue(context).awaitNamespace(getOpenShiftClient(context).getNamespace());
+        }
+
+        if (PodLogStreams.isEnabled()) {
+            getStore(context).put(PodLogStreams.class.getName(), PodLogStreams.start(getOpenShiftClient(context)));
+        }
+
+        if (ReusableDeployment.isEnabled() && !shouldReuseDeployment(context)) {
+            // the application deployed by this test class could clash with the application kept from previous test class
+            getReusableDeployment(context).undeploy(getOpenShiftClient(context));
+        }
 
         if (AutomaticAppDeployment.isEnabled()) {
             deployAdditionalResources(context);
 
-            runPublicStaticVoidMethods(CustomizeApplicationDeployment.class, context);
+            Timeline.Span customization = timeline.span("customize deployment");
+            try {
+                runPublicStaticVoidMethods(CustomizeApplicationDeployment.class, context);
+            } finally {
+                customization.close();
+            }
         }
 
         if (AutomaticAppDeployment.isEnabled() && !getManualDeploymentAnnotation(context).isPresent()) {
@@ -162,10 +295,34 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
                 throw new OpenShiftTestException("Missing " + yaml);
             }
 
-            ImageOverrides.apply(yaml, getOpenShiftClient(context));
+            OpenShiftClient oc = getOpenShiftClient(context);
+            // image overrides don't change resource names, so the original file is good enough for undeployment
+            Path effectiveYaml;
+            Timeline.Span imageOverrides = timeline.span("image overrides");
+            try {
+                effectiveYaml = ImageOverrides.apply(yaml, oc);
+            } finally {
+                imageOverrides.close();
+            }
 
-            System.out.println("deploying application");
-            new Command("oc", "apply", "-f", yaml.toString()).runAndWait();
+            Timeline.Span applying = timeline.span("apply");
+            try {
+                if (shouldReuseDeployment(context)) {
+                    ReusableDeployment reusable = getReusableDeployment(context);
+                    String hash = ContentHash.of(effectiveYaml);
+                    if (reusable.isDeployed(oc.getNamespace(), hash)) {
+                        System.out.println("reusing application deployed by previous test class");
+                    } else {
+                        reusable.undeploy(oc);
+                        deployApplication(effectiveYaml, oc);
+                        reusable.deployed(oc.getNamespace(), hash, effectiveYaml);
+                    }
+                } else {
+                    deployApplication(effectiveYaml, oc);
+                }
+            } finally {
+                applying.close();
+            }
 
 /*
             awaitImageStreams(context, yaml);
@@ -193,48 +350,95 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
         getAwaitUtil(context).awaitKnownApps();
     }
 
-    private void createEphemeralNamespaceIfNecessary(ExtensionContext context) throws IOException, InterruptedException {
-        if (EphemeralNamespace.isEnabled()) {
-            StringBuilder currentNamespace = new StringBuilder();
-            new Command("oc", "project", "--short").outputToString(currentNamespace).runAndWait();
-            getStore(context).put(PreviousNamespace.class.getName(), new PreviousNamespace(currentNamespace.toString()));
+    private void deployApplication(Path yaml, OpenShiftClient oc) throws Exception {
+        System.out.println("deploying application");
+        if (ResourcesApplier.isEnabled()) {
+            new ResourcesApplier(oc).apply(ManifestCache.get(yaml, oc));
+        } else {
+            new Command("oc", "apply", "-f", yaml.toString(), "--namespace", oc.getNamespace()).runAndWait();
+        }
+    }
+
+    private void createEphemeralNamespaceIfNecessary(ExtensionContext context) throws Exception {
+        if (EphemeralNamespace.isEnabled() && EphemeralNamespacePool.isEnabled()) {
+            EphemeralNamespacePool pool = getEphemeralNamespacePool(context);
+            if (ParallelClasses.isDisabled()) {
+                getStore(context).put(PreviousNamespace.class.getName(), new PreviousNamespace(pool.originalNamespace));
+            }
+
+            EphemeralNamespace namespace = pool.take();
+            getStore(context).put(EphemeralNamespace.class.getName(), namespace);
+
+            System.out.println(ansi().a("using ephemeral namespace ").fgYellow().a(namespace.name).reset());
+            if (ParallelClasses.isDisabled()) {
+                new Command("oc", "project", namespace.name).runAndWait();
+            }
+        } else if (EphemeralNamespace.isEnabled()) {
+            if (ParallelClasses.isDisabled()) {
+                StringBuilder currentNamespace = new StringBuilder();
+                new Command("oc", "project", "--short").outputToString(currentNamespace).runAndWait();
+                getStore(context).put(PreviousNamespace.class.getName(), new PreviousNamespace(currentNamespace.toString().trim()));
+            }
 
             EphemeralNamespace namespace = EphemeralNamespace.newWithRandomName();
             getStore(context).put(EphemeralNamespace.class.getName(), namespace);
 
             System.out.println(ansi().a("using ephemeral namespace ").fgYellow().a(namespace.name).reset());
-            new Command("oc", "new-project", namespace.name).runAndWait();
-
-            // image streams pointing to the original namespace where builds were performed
-            try (Stream<Path> imagestreams = Files.find(Paths.get("target"), 1,
-                    (path, ignored) -> path.getFileName().toString().endsWith("-is.yml"))) {
-                List<Path> yamls = imagestreams.collect(Collectors.toList());
-                for (Path yaml : yamls) {
-                    new Command("oc", "apply", "-f", yaml.toString()).runAndWait();
-                }
+            if (ParallelClasses.isDisabled()) {
+                new Command("oc", "new-project", namespace.name).runAndWait();
+            } else {
+                // the current namespace is shared by all test classes, so it must stay the same
+                new Command("oc", "new-project", namespace.name, "--skip-config-write").runAndWait();
+            }
+
+            // image streams are independent of each other
+            List<CompletableFuture<Void>> imageStreams = new ArrayList<>();
+            for (Path yaml : EphemeralNamespace.findImageStreams()) {
+                imageStreams.add(new Command("oc", "apply", "-f", yaml.toString(), "--namespace", namespace.name)
+                        .runAsync());
+            }
+            try {
+                CompletableFuture.allOf(imageStreams.toArray(new CompletableFuture<?>[0])).get();
+            } catch (ExecutionException e) {
+                throw new OpenShiftTestException("Couldn't apply image streams", e.getCause());
             }
         }
     }
 
-    private void deployAdditionalResources(ExtensionContext context) throws IOException, InterruptedException {
+    private void deployAdditionalResources(ExtensionContext context) throws Exception {
         Optional<AnnotatedElement> element = context.getElement();
         if (element.isPresent()) {
             TestsStatus testsStatus = getTestsStatus(context);
             OpenShiftClient oc = getOpenShiftClient(context);
             AwaitUtil awaitUtil = getAwaitUtil(context);
 
+            Timeline timeline = getTimeline(context);
+
             AnnotatedElement annotatedElement = element.get();
             AdditionalResources[] annotations = annotatedElement.getAnnotationsByType(AdditionalResources.class);
-            for (AdditionalResources additionalResources : annotations) {
-                AdditionalResourcesDeployed deployed = AdditionalResourcesDeployed.deploy(additionalResources,
-                        testsStatus, oc, awaitUtil);
-
-                if (EphemeralNamespace.isDisabled()) {
-                    // when using ephemeral namespaces, we don't delete additional resources because:
-                    // - when an ephemeral namespace is dropped, everything is destroyed anyway
-                    // - when retain on failure is enabled and failure occurs,
-                    //   everything in the ephemeral namespace must be kept intact
-                    getStore(context).put(new Object(), deployed);
+            for (List<AdditionalResources> wave : AdditionalResourcesWaves.of(annotations)) {
+                List<AdditionalResourcesDeployed> deployed = new ArrayList<>();
+                try {
+                    AdditionalResourcesWaves.runConcurrently(wave, additionalResources -> {
+                        Timeline.Span deployment = timeline.span("additional resources", additionalResources.value());
+                        try {
+                            if (SharedAdditionalResources.isEnabled(additionalResources)) {
+                                return getSharedAdditionalResources(context).acquire(additionalResources, testsStatus,
+                                        oc, awaitUtil);
+                            }
+                            return AdditionalResourcesDeployed.deploy(additionalResources, testsStatus, oc, awaitUtil);
+                        } finally {
+                            deployment.close();
+                        }
+                    }, deployed);
+                } finally {
+                    if (EphemeralNamespace.isDisabled() && !deployed.isEmpty()) {
+                        // when using ephemeral namespaces, we don't delete additional resources because:
+                        // - when an ephemeral namespace is dropped, everything is destroyed anyway
+                        // - when retain on failure is enabled and failure occurs,
+                        //   everything in the ephemeral namespace must be kept intact
+                        getDeployedAdditionalResources(context).add(deployed);
+                    }
                 }
             }
         }
@@ -257,6 +461,12 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
 */
 
     private void setUpRestAssured(ExtensionContext context) throws OpenShiftTestException {
+        if (ParallelClasses.isEnabled()) {
+            // global configuration would be overwritten by other test classes,
+            // tests must use the injected RouteClient or RequestSpecification instead
+            return;
+        }
+
         AllAppsMetadata apps = getAllAppsMetadata(context);
         if (apps.all.size() != 1) {
             return;
@@ -279,24 +489,45 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
 
     @Override
     public void afterAll(ExtensionContext context) throws Exception {
+        Timeline.Span testsSpan = getStore(context).remove(TESTS_SPAN, Timeline.Span.class);
+        if (testsSpan != null) {
+            testsSpan.close();
+        }
+
+        try {
+            doAfterAll(context);
+        } finally {
+            Timeline.Span classSpan = getStore(context).remove(CLASS_SPAN, Timeline.Span.class);
+            if (classSpan != null) {
+                classSpan.close();
+            }
+        }
+    }
+
+    private void doAfterAll(ExtensionContext context) throws Exception {
         boolean testsFailed = getTestsStatus(context).failed;
 
-        if (testsFailed) {
-            System.out.println("---------- OpenShiftTest failure ----------");
-            System.out.println(ansi().a("test ").fgYellow().a(context.getDisplayName()).reset()
-                    .a(" failed, gathering debug data"));
+        Timeline timeline = getTimeline(context);
+
+        Timeline.Span logGathering = timeline.span("log gathering");
+        try {
+            if (testsFailed) {
+                System.out.println("---------- OpenShiftTest failure ----------");
+                System.out.println(ansi().a("test ").fgYellow().a(context.getDisplayName()).reset()
+                        .a(" failed, gathering debug data"));
+
+                OpenShiftClient oc = getOpenShiftClient(context);
+                new Command("oc", "status", "--suggest", "--namespace", oc.getNamespace()).runAndWait();
 
-            new Command("oc", "status", "--suggest").runAndWait();
+                new PodLogs(oc).gather(Paths.get("target", "logs", oc.getNamespace()));
+            }
 
-            OpenShiftUtil openShiftUtil = getOpenShiftUtil(context);
-            Path logDirectory = Paths.get("target", "logs", openShiftUtil.getNamespace());
-            Files.createDirectories(logDirectory);
-            for (Pod pod : openShiftUtil.getPods()) {
-                String podName = pod.getMetadata().getName();
-                new Command("oc", "logs", podName)
-                        .outputToFile(logDirectory.resolve(podName + ".log"))
-                        .runAndWait();
+            PodLogStreams podLogStreams = getStore(context).get(PodLogStreams.class.getName(), PodLogStreams.class);
+            if (podLogStreams != null && (testsFailed || PodLogStreams.shouldAlwaysStore())) {
+                podLogStreams.store(Paths.get("target", "logs", getOpenShiftClient(context).getNamespace(), "stream"));
             }
+        } finally {
+            logGathering.close();
         }
 
         System.out.println("---------- OpenShiftTest tear down ----------");
@@ -324,22 +555,99 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
         if (AutomaticAppDeployment.isDisabled()) {
             shouldUndeployApplication = false;
         }
+        if (shouldReuseDeployment(context)) {
+            if (testsFailed) {
+                // the application may be broken, so the next test class must not reuse it;
+                // it's undeployed as usual, unless it should be retained
+                getReusableDeployment(context).forget();
+            } else {
+                // kept for the next test class, undeployed at the end of the test run
+                shouldUndeployApplication = false;
+            }
+        }
+
+        Timeline.Span undeployment = timeline.span("undeploy");
+        try {
+            if (shouldUndeployApplication) {
+                OpenShiftClient oc = getOpenShiftClient(context);
+                Path yaml = getResourcesYaml();
+                TeardownQueue.Task undeployApplication = () -> {
+                    System.out.println("undeploying application");
+                    if (ResourcesApplier.isEnabled()) {
+                        new ResourcesApplier(oc).delete(ManifestCache.get(yaml, oc));
+                    } else {
+                        new Command("oc", "delete", "-f", yaml.toString(),
+                                "--namespace", oc.getNamespace(), "--ignore-not-found").runAndWait();
+                    }
+                };
+
+                if (AutomaticAppDeployment.isEnabled() && hasMethods(CustomizeApplicationUndeployment.class, context)) {
+                    // these methods may expect that the application is already undeployed
+                    undeployApplication.run();
+                } else {
+                    teardown(context, oc.getNamespace(), "undeploying application", undeployApplication);
+                }
+            }
 
-        if (shouldUndeployApplication) {
-            System.out.println("undeploying application");
-            new Command("oc", "delete", "-f", getResourcesYaml().toString(), "--ignore-not-found").runAndWait();
+            if (AutomaticAppDeployment.isEnabled()) {
+                // TODO not yet clear if this method should be invoked (or not) in presence of ephemeral namespaces,
+                //  test failures, or retain on failure
+                runPublicStaticVoidMethods(CustomizeApplicationUndeployment.class, context);
+            }
+        } finally {
+            undeployment.close();
+            Timeline.Span additionalResourcesUndeployment = timeline.span("undeploy", "additional resources");
+            try {
+                undeployAdditionalResources(context);
+            } finally {
+                additionalResourcesUndeployment.close();
+            }
         }
 
-        if (AutomaticAppDeployment.isEnabled()) {
-            // TODO not yet clear if this method should be invoked (or not) in presence of ephemeral namespaces,
-            //  test failures, or retain on failure
-            runPublicStaticVoidMethods(CustomizeApplicationUndeployment.class, context);
+        Timeline.Span namespaceDeletion = timeline.span("namespace deletion");
+        try {
+            dropEphemeralNamespaceIfNecessary(context);
+        } finally {
+            namespaceDeletion.close();
+        }
+    }
+
+    private void undeployAdditionalResources(ExtensionContext context) throws Exception {
+        // done explicitly (not by closing the store) so that it's guaranteed to happen in reverse order
+        // and while the OpenShift client is still open
+        // shared resources are only released here, they are undeployed at the end of the test run
+        List<List<AdditionalResourcesDeployed>> waves = getDeployedAdditionalResources(context);
+        TestsStatus testsStatus = getTestsStatus(context);
+        List<List<AdditionalResourcesDeployed>> toUndeploy = new ArrayList<>();
+        for (List<AdditionalResourcesDeployed> wave : waves) {
+            List<AdditionalResourcesDeployed> notShared = new ArrayList<>();
+            for (AdditionalResourcesDeployed deployed : wave) {
+                SharedAdditionalResources shared = getSharedAdditionalResources(context);
+                if (shared.isShared(deployed)) {
+                    shared.release(deployed, testsStatus);
+                } else {
+                    notShared.add(deployed);
+                }
+            }
+            if (!notShared.isEmpty()) {
+                toUndeploy.add(notShared);
+            }
+        }
+        waves.clear();
+
+        if (toUndeploy.isEmpty()) {
+            return;
         }
 
-        dropEphemeralNamespaceIfNecessary(context);
+        // a wave that fails to undeploy doesn't prevent undeploying the earlier waves
+        teardown(context, getOpenShiftClient(context).getNamespace(), "undeploying additional resources",
+                () -> AdditionalResourcesWaves.runAllInReverse(toUndeploy, deployed -> {
+                    deployed.undeploy();
+                    return deployed;
+                }));
     }
 
-    private void dropEphemeralNamespaceIfNecessary(ExtensionContext context) throws IOException, InterruptedException {
+    private void dropEphemeralNamespaceIfNecessary(ExtensionContext context) throws Exception {
         PreviousNamespace previousNamespace = getStore(context).get(PreviousNamespace.class.getName(), PreviousNamespace.class);
         if (previousNamespace != null) {
             new Command("oc", "project", previousNamespace.name).runAndWait();
@@ -352,13 +660,45 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
                 System.out.println(ansi().a("test ").fgYellow().a(context.getDisplayName()).reset()
                         .a(" failed, keeping ephemeral namespace ").fgYellow().a(ephemeralNamespace.name).reset()
                         .a(" intact"));
+            } else if (EphemeralNamespacePool.isEnabled()) {
+                // only after the tasks already queued for this namespace, so that they don't fail on a deleted namespace
+                EphemeralNamespacePool pool = getEphemeralNamespacePool(context);
+                teardown(context, ephemeralNamespace.name, "releasing ephemeral namespace " + ephemeralNamespace.name,
+                        () -> pool.release(ephemeralNamespace));
             } else {
-                System.out.println(ansi().a("dropping ephemeral namespace ").fgYellow().a(ephemeralNamespace.name).reset());
-                new Command("oc", "delete", "project", ephemeralNamespace.name).runAndWait();
+                String namespace = ephemeralNamespace.name;
+                teardown(context, namespace, "dropping ephemeral namespace " + namespace, () -> {
+                    System.out.println(ansi().a("dropping ephemeral namespace ").fgYellow().a(namespace).reset());
+                    if (TeardownQueue.isEnabled()) {
+                        // nothing will ever be deployed into this namespace again, so there's no need to wait for finalizers
+                        new Command("oc", "delete", "project", namespace, "--wait=false").runAndWait();
+                    } else {
+                        new Command("oc", "delete", "project", namespace).runAndWait();
+                    }
+                });
             }
         }
     }
 
+    // runs the task in the background if background teardown is enabled, otherwise right away
+    private void teardown(ExtensionContext context, String namespace, String description, TeardownQueue.Task task)
+            throws Exception {
+        if (TeardownQueue.isEnabled()) {
+            getTeardownQueue(context).submit(namespace, description, task);
+        } else {
+            task.run();
+        }
+    }
+
+    private static boolean hasMethods(Class<? extends Annotation> annotation, ExtensionContext context) {
+        for (Method method : context.getRequiredTestClass().getMethods()) {
+            if (method.getAnnotation(annotation) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void runPublicStaticVoidMethods(Class<? extends Annotation> annotation, ExtensionContext context) throws Exception {
         for (Method method : context.getRequiredTestClass().getMethods()) {
             if (method.getAnnotation(annotation) != null) {
@@ -391,11 +731,22 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
 
     @Override
     public void beforeEach(ExtensionContext context) {
+        if (TestOutputBuffering.isEnabled()) {
+            getTestOutputBuffering(context).start();
+        }
+
         System.out.println(ansi().a("---------- running test ")
                 .fgYellow().a(context.getParent().map(ctx -> ctx.getDisplayName() + ".").orElse(""))
                 .a(context.getDisplayName()).reset().a(" ----------"));
     }
 
+    @Override
+    public void afterEach(ExtensionContext context) {
+        if (TestOutputBuffering.isEnabled()) {
+            getTestOutputBuffering(context).finish();
+        }
+    }
+
     // ---
 
     @Override
@@ -445,6 +796,10 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
             return getURL(injectionPoint, context);
         } else if (URI.class.equals(injectionPoint.type())) {
             return getURI(injectionPoint, context);
+        } else if (RouteClient.class.equals(injectionPoint.type())) {
+            return getRouteClient(injectionPoint, context);
+        } else if (RequestSpecification.class.equals(injectionPoint.type())) {
+            return getRouteClient(injectionPoint, context).spec();
         } else {
             throw new OpenShiftTestException("Unsupported type " + injectionPoint.type().getSimpleName()
                     + " for @TestResource " + injectionPoint.description());
@@ -470,20 +825,34 @@ final class OpenShiftTestExtension implements BeforeAllCallback, AfterAllCallbac
     }
 
     private String getRouteAddress(InjectionPoint injectionPoint, ExtensionContext context) throws OpenShiftTestException {
-        String routeName = injectionPoint.isAnnotationPresent(WithName.class)
+        String routeName = getRouteName(injectionPoint, context);
+        DiscoveryUtil discovery = getDiscoveryUtil(context);
+        return discovery.getRouteUrl(routeName, getRouteNamespace(injectionPoint))
+                .orElseThrow(() -> new OpenShiftTestException("Missing route " + routeName));
+    }
+
+    private RouteClient getRouteClient(InjectionPoint injectionPoint, ExtensionContext context) throws OpenShiftTestException {
+        String routeName = getRouteName(injectionPoint, context);
+        DiscoveryUtil discovery = getDiscoveryUtil(context);
+        return discovery.getRouteClient(routeName, getRouteNamespace(injectionPoint))
+                .orElseThrow(() -> new OpenShiftTestException("Missing route " + routeName));
+    }
+
+    private String getRouteName(InjectionPoint injectionPoint, ExtensionContext context) throws OpenShiftTestException {
+        return injectionPoint.isAnnotationPresent(WithName.class)
                 ? injectionPoint.getAnnotation(WithName.class).value()
                 : getAllAppsMetadata(context).requireSingle().name;
+    }
 
+    // null means current namespace
+    private static String getRouteNamespace(InjectionPoint injectionPoint) {
         String namespace = injectionPoint.isAnnotationPresent(WithName.class)
                 ? injectionPoint.getAnnotation(WithName.class).inNamespace()
                 : null;
         if (WithName.CURRENT_NAMESPACE.equals(namespace)) {
             namespace = null;
         }
-
-        DiscoveryUtil discovery = getDiscoveryUtil(context);
-        return discovery.getRouteUrl(routeName, namespace)
-                .orElseThrow(() -> new OpenShiftTestException("Missing route " + routeName));
+        return namespace;
     }
 
     // ---
@@ -0,0 +1,193 @@
+package io.thorntail.openshift.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+/**
+ * Destination of {@link Command} output. The output is read in chunks and each chunk is handed to all sinks
+ * of the command, so multiple sinks can be combined without copying the output more than once.
+ *
+ * @see Command#outputTo(OutputSink...)
+ */
+public abstract class OutputSink {
+    /**
+     * Writes the output to given file. The file is overwritten.
+     */
+    public static OutputSink file(Path file) {
+        return new FileSink(file);
+    }
+
+    /**
+     * Prints the output to the console, each line prefixed with the name of the program.
+     */
+    public static OutputSink console() {
+        return new ConsoleSink();
+    }
+
+    /**
+     * Keeps only the last {@code capacity} bytes of the output in memory.
+     *
+     * @throws IllegalArgumentException if {@code capacity} is not greater than 0
+     */
+    public static Buffer buffer(int capacity) {
+        return new Buffer(capacity);
+    }
+
+    protected OutputSink() {
+    }
+
+    /**
+     * Called before the command starts producing output.
+     *
+     * @param description name of the program, e.g. {@code oc}
+     */
+    protected void start(String description) throws IOException {
+    }
+
+    /**
+     * Called with each chunk of the output, from a single thread. The chunk is only valid during this call,
+     * it must be copied if it's needed later.
+     */
+    protected abstract void write(byte[] chunk, int offset, int length) throws IOException;
+
+    /**
+     * Called when the output ends, even if reading it failed.
+     */
+    protected void finish() throws IOException {
+    }
+
+    private static final class FileSink extends OutputSink {
+        private final Path file;
+        private OutputStream out;
+
+        FileSink(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        protected void start(String description) throws IOException {
+            out = Files.newOutputStream(file);
+        }
+
+        @Override
+        protected void write(byte[] chunk, int offset, int length) throws IOException {
+            out.write(chunk, offset, length);
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    private static final class ConsoleSink extends OutputSink {
+        private final PrintStream console = System.out;
+        // bytes of a line that wasn't terminated in the previous chunk
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private byte[] prefix;
+
+        @Override
+        protected void start(String description) {
+            prefix = ansi().fgCyan().a(description).reset().a("> ").toString().getBytes(Charset.defaultCharset());
+        }
+
+        @Override
+        protected void write(byte[] chunk, int offset, int length) {
+            int lineStart = offset;
+            for (int i = offset; i < offset + length; i++) {
+                if (chunk[i] == '\n') {
+                    printLine(chunk, lineStart, i + 1 - lineStart);
+                    lineStart = i + 1;
+                }
+            }
+            pending.write(chunk, lineStart, offset + length - lineStart);
+        }
+
+        @Override
+        protected void finish() {
+            if (pending.size() > 0) {
+                pending.write('\n');
+                printLine(new byte[0], 0, 0);
+            }
+        }
+
+        private void printLine(byte[] chunk, int offset, int length) {
+            synchronized (console) {
+                console.write(prefix, 0, prefix.length);
+                if (pending.size() > 0) {
+                    console.write(pending.toByteArray(), 0, pending.size());
+                    pending.reset();
+                }
+                console.write(chunk, offset, length);
+                console.flush();
+            }
+        }
+    }
+
+    static final class StringSink extends OutputSink {
+        private static final Pattern LINE_TERMINATOR = Pattern.compile("\r\n|\r|\n");
+
+        private final StringBuilder output;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        StringSink(StringBuilder output) {
+            this.output = output;
+        }
+
+        @Override
+        protected void write(byte[] chunk, int offset, int length) {
+            bytes.write(chunk, offset, length);
+        }
+
+        @Override
+        protected void finish() {
+            // decoded at once, so that multi-byte characters split between chunks are preserved
+            String text = new String(bytes.toByteArray(), Charset.defaultCharset());
+            // lines are concatenated without line terminators, same as `BufferedReader.readLine` would do
+            output.append(LINE_TERMINATOR.matcher(text).replaceAll(""));
+        }
+    }
+
+    /**
+     * Bounded in-memory sink, see {@link #buffer(int)}. Its content may be read at any time,
+     * even while the command is still running.
+     */
+    public static final class Buffer extends OutputSink {
+        private final RingBuffer data;
+
+        private Buffer(int capacity) {
+            this.data = new RingBuffer(capacity);
+        }
+
+        @Override
+        protected void write(byte[] chunk, int offset, int length) {
+            data.write(chunk, offset, length);
+        }
+
+        public byte[] toByteArray() {
+            ByteArrayOutputStream result = new ByteArrayOutputStream(data.size());
+            try {
+                data.writeTo(result);
+            } catch (IOException e) {
+                // can't happen when writing to ByteArrayOutputStream
+                throw new IllegalStateException(e);
+            }
+            return result.toByteArray();
+        }
+
+        @Override
+        public String toString() {
+            return new String(toByteArray(), Charset.defaultCharset());
+        }
+    }
+}
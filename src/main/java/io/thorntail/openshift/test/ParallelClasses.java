@@ -0,0 +1,19 @@
+package io.thorntail.openshift.test;
+
+import io.thorntail.openshift.test.config.Config;
+
+// when test classes run in parallel, nothing may depend on process-global state:
+// - each test class runs in its own ephemeral namespace
+// - the current namespace in kubeconfig is never changed, `oc` commands get an explicit `--namespace`
+// - the global RestAssured configuration isn't touched, tests use injected `RouteClient` or `RequestSpecification`
+final class ParallelClasses {
+    static final String CONFIG_KEY = "ts.parallel-classes";
+
+    static boolean isEnabled() {
+        return Config.get().getAsBoolean(CONFIG_KEY, false);
+    }
+
+    static boolean isDisabled() {
+        return !isEnabled();
+    }
+}
@@ -0,0 +1,151 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.thorntail.openshift.test.config.Config;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// streams logs of all pods in the namespace into bounded in-memory buffers while the test class runs,
+// so that logs of pods that no longer exist at the end (e.g. after scaling down or rolling out changes) aren't lost
+// the buffers are only written to disk if needed
+final class PodLogStreams implements CloseableResource {
+    static final String CONFIG_KEY = "ts.stream-pod-logs";
+    static final String ALWAYS_STORE_CONFIG_KEY = "ts.always-store-pod-logs";
+    static final String BUFFER_SIZE_CONFIG_KEY = "ts.pod-logs-buffer-bytes";
+
+    static boolean isEnabled() {
+        return Config.get().getAsBoolean(CONFIG_KEY, false);
+    }
+
+    static boolean shouldAlwaysStore() {
+        return Config.get().getAsBoolean(ALWAYS_STORE_CONFIG_KEY, false);
+    }
+
+    static PodLogStreams start(OpenShiftClient oc) {
+        PodLogStreams result = new PodLogStreams(oc);
+        // watch first, so that no pod is missed; attaching to a container twice is prevented
+        result.watch = oc.pods().watch(new Watcher<Pod>() {
+            @Override
+            public void eventReceived(Action action, Pod pod) {
+                if (action == Action.ADDED || action == Action.MODIFIED) {
+                    result.attach(pod);
+                }
+            }
+
+            @Override
+            public void onClose(WatcherException cause) {
+                if (cause != null) {
+                    System.out.println("pod logs streaming interrupted, logs of new pods won't be captured: "
+                            + cause.getMessage());
+                }
+            }
+        });
+        for (Pod pod : oc.pods().list().getItems()) {
+            result.attach(pod);
+        }
+        return result;
+    }
+
+    private final OpenShiftClient oc;
+    private final int bufferSize;
+    // key is <pod>-<container>
+    private final Map<String, ContainerLog> logs = new ConcurrentHashMap<>();
+    private final List<LogWatch> logWatches = new ArrayList<>();
+    private Watch watch;
+    private boolean closed;
+
+    private PodLogStreams(OpenShiftClient oc) {
+        this.oc = oc;
+        this.bufferSize = Config.get().getAsInt(BUFFER_SIZE_CONFIG_KEY, 1024 * 1024);
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException(BUFFER_SIZE_CONFIG_KEY + " must be greater than 0, was " + bufferSize);
+        }
+    }
+
+    private synchronized void attach(Pod pod) {
+        if (closed || pod.getStatus() == null) {
+            return;
+        }
+
+        List<ContainerStatus> statuses = new ArrayList<>();
+        if (pod.getStatus().getInitContainerStatuses() != null) {
+            statuses.addAll(pod.getStatus().getInitContainerStatuses());
+        }
+        if (pod.getStatus().getContainerStatuses() != null) {
+            statuses.addAll(pod.getStatus().getContainerStatuses());
+        }
+
+        String podName = pod.getMetadata().getName();
+        for (ContainerStatus status : statuses) {
+            // container ID is only known after the container has started; it changes when the container restarts
+            String containerId = status.getContainerID();
+            if (containerId == null || containerId.isEmpty()) {
+                continue;
+            }
+
+            ContainerLog log = logs.computeIfAbsent(podName + "-" + status.getName(),
+                    ignored -> new ContainerLog(new RingBuffer(bufferSize)));
+            if (containerId.equals(log.containerId)) {
+                continue;
+            }
+            if (log.containerId != null) {
+                byte[] marker = ("\n---------- container " + status.getName() + " restarted ----------\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                log.buffer.write(marker, 0, marker.length);
+            }
+            log.containerId = containerId;
+
+            try {
+                logWatches.add(oc.pods().withName(podName).inContainer(status.getName()).watchLog(log.buffer));
+            } catch (KubernetesClientException e) {
+                System.out.println("couldn't stream logs of " + podName + "/" + status.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    void store(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, ContainerLog> entry : logs.entrySet()) {
+            try (OutputStream out = Files.newOutputStream(directory.resolve(entry.getKey() + ".log"))) {
+                entry.getValue().buffer.writeTo(out);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (watch != null) {
+            watch.close();
+        }
+        for (LogWatch logWatch : logWatches) {
+            logWatch.close();
+        }
+        logWatches.clear();
+    }
+
+    private static final class ContainerLog {
+        final RingBuffer buffer;
+        String containerId;
+
+        ContainerLog(RingBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.thorntail.openshift.test.config.Config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+// gathers logs of all pods in the namespace, in parallel, using the OpenShift client
+// for each pod, logs of all containers and init containers are gathered, including previous instances
+// of containers that were restarted
+final class PodLogs {
+    static final String COMPRESS_CONFIG_KEY = "ts.compress-logs";
+    static final String LIMIT_CONFIG_KEY = "ts.pod-logs-limit-bytes";
+
+    private static final int PARALLELISM = 8;
+
+    private final OpenShiftClient oc;
+
+    PodLogs(OpenShiftClient oc) {
+        this.oc = oc;
+    }
+
+    void gather(Path directory) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+
+        List<Pod> pods = oc.pods().list().getItems();
+        if (pods.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(pods.size(), PARALLELISM), runnable -> {
+            Thread thread = new Thread(runnable, "pod-logs");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Pod pod : pods) {
+                futures.add(executor.submit(() -> {
+                    gather(pod, directory);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    System.out.println(ansi().a("couldn't gather pod logs: ").a(e.getCause()));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void gather(Pod pod, Path directory) throws IOException {
+        String podName = pod.getMetadata().getName();
+
+        List<Container> containers = new ArrayList<>();
+        List<ContainerStatus> statuses = new ArrayList<>();
+        if (pod.getSpec().getInitContainers() != null) {
+            containers.addAll(pod.getSpec().getInitContainers());
+        }
+        containers.addAll(pod.getSpec().getContainers());
+        if (pod.getStatus() != null) {
+            if (pod.getStatus().getInitContainerStatuses() != null) {
+                statuses.addAll(pod.getStatus().getInitContainerStatuses());
+            }
+            if (pod.getStatus().getContainerStatuses() != null) {
+                statuses.addAll(pod.getStatus().getContainerStatuses());
+            }
+        }
+
+        // the limit applies to the pod as a whole
+        int limit = Config.get().getAsInt(LIMIT_CONFIG_KEY, 0);
+        int remaining = limit;
+        for (Container container : containers) {
+            String containerName = container.getName();
+
+            if (hasPreviousInstance(containerName, statuses)) {
+                remaining -= write(getLog(podName, containerName, true, limit > 0 ? remaining : 0),
+                        directory, podName + "-" + containerName + ".previous");
+                if (limit > 0 && remaining <= 0) {
+                    return;
+                }
+            }
+
+            remaining -= write(getLog(podName, containerName, false, limit > 0 ? remaining : 0),
+                    directory, podName + "-" + containerName);
+            if (limit > 0 && remaining <= 0) {
+                return;
+            }
+        }
+    }
+
+    private static boolean hasPreviousInstance(String containerName, List<ContainerStatus> statuses) {
+        for (ContainerStatus status : statuses) {
+            if (containerName.equals(status.getName())) {
+                return status.getLastState() != null && status.getLastState().getTerminated() != null;
+            }
+        }
+        return false;
+    }
+
+    private String getLog(String podName, String containerName, boolean previous, int limit) {
+        try {
+            if (limit > 0) {
+                // the end of the log is usually the most interesting part, but the API server can only limit
+                // the log from the start (`limitBytes`), so the log is streamed and only its end is kept
+                try (Reader reader = previous
+                        ? oc.pods().withName(podName).inContainer(containerName).terminated().getLogReader()
+                        : oc.pods().withName(podName).inContainer(containerName).getLogReader()) {
+                    return tail(reader, limit);
+                }
+            } else if (previous) {
+                return oc.pods().withName(podName).inContainer(containerName).terminated().getLog();
+            } else {
+                return oc.pods().withName(podName).inContainer(containerName).getLog();
+            }
+        } catch (KubernetesClientException | IOException e) {
+            // e.g. the container hasn't started yet
+            System.out.println(ansi().a("couldn't get logs of ").fgYellow().a(podName + "/" + containerName).reset()
+                    .a(": ").a(e.getMessage()));
+            return null;
+        }
+    }
+
+    // reads everything and returns the last `limit` characters, which is `limit` bytes for ASCII logs
+    static String tail(Reader reader, int limit) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[8 * 1024];
+        int charsRead;
+        while ((charsRead = reader.read(buffer)) != -1) {
+            result.append(buffer, 0, charsRead);
+            // trimmed only occasionally, so that the characters aren't shifted after each read
+            if (result.length() > 2 * limit + buffer.length) {
+                result.delete(0, result.length() - limit);
+            }
+        }
+        if (result.length() > limit) {
+            result.delete(0, result.length() - limit);
+        }
+        return result.toString();
+    }
+
+    // returns the number of bytes of the log
+    private static int write(String log, Path directory, String fileName) throws IOException {
+        if (log == null) {
+            return 0;
+        }
+
+        byte[] bytes = log.getBytes(StandardCharsets.UTF_8);
+        if (Config.get().getAsBoolean(COMPRESS_CONFIG_KEY, false)) {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(directory.resolve(fileName + ".log.gz")))) {
+                out.write(bytes);
+            }
+        } else {
+            Files.write(directory.resolve(fileName + ".log"), bytes);
+        }
+        return bytes.length;
+    }
+}
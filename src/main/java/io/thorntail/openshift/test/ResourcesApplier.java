@@ -0,0 +1,152 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.thorntail.openshift.test.config.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+// applies and deletes resources using the already-open OpenShiftClient, instead of forking `oc`
+// "apply" here means create-or-replace, not the three-way merge of `oc apply`: existing resources are replaced
+// as a whole (server-side apply isn't available in the Fabric8 client version we use), which is why it's opt-in
+final class ResourcesApplier {
+    static final String CONFIG_KEY = "ts.apply-with-client";
+    static final String PARALLELISM_CONFIG_KEY = "ts.apply-parallelism";
+
+    // resources that others may depend on go first; unknown kinds (such as custom resources) go last
+    private static final List<String> KIND_ORDER = Arrays.asList(
+            "Namespace", "Project", "CustomResourceDefinition",
+            "ServiceAccount", "ClusterRole", "ClusterRoleBinding", "Role", "RoleBinding",
+            "Secret", "ConfigMap", "PersistentVolume", "PersistentVolumeClaim",
+            "Service", "ImageStream", "BuildConfig",
+            "DeploymentConfig", "Deployment", "StatefulSet", "DaemonSet", "Job", "CronJob",
+            "HorizontalPodAutoscaler", "Ingress", "Route");
+
+    static boolean isEnabled() {
+        return Config.get().getAsBoolean(CONFIG_KEY, false);
+    }
+
+    private final OpenShiftClient oc;
+
+    ResourcesApplier(OpenShiftClient oc) {
+        this.oc = oc;
+    }
+
+    /**
+     * Creates or replaces given resources, in dependency order. Resources of the same kind are applied in parallel.
+     * Returns the resources as returned by the API server.
+     * <p>
+     * Note that unlike {@code oc apply}, this doesn't merge with the existing resources: an existing resource
+     * is replaced as a whole, so changes made to it by others (e.g. {@code oc scale}) are lost. That doesn't
+     * matter for test applications, which are deployed from scratch. (Server-side apply isn't supported
+     * by the Fabric8 client in the version used here.)
+     */
+    List<HasMetadata> apply(List<HasMetadata> resources) throws OpenShiftTestException, InterruptedException {
+        List<List<HasMetadata>> groups = groupByKind(resources);
+        List<HasMetadata> result = new ArrayList<>();
+        for (List<HasMetadata> group : groups) {
+            result.addAll(forEachInParallel(group, "apply", it -> {
+                // the client may modify the object (e.g. its resource version), but it may be shared (see ManifestCache)
+                HasMetadata copy = Serialization.jsonMapper().convertValue(it, it.getClass());
+                HasMetadata applied = oc.resource(copy).createOrReplace();
+                System.out.println(ansi().a("applied ").a(it.getKind()).a(" ").fgYellow().a(it.getMetadata().getName()).reset());
+                return applied;
+            }));
+        }
+        return result;
+    }
+
+    /**
+     * Deletes given resources, in reverse dependency order. Resources of the same kind are deleted in parallel.
+     * Resources that don't exist are ignored. If some resources can't be deleted, the others are still deleted
+     * and all the failures are reported at the end.
+     */
+    void delete(List<HasMetadata> resources) throws OpenShiftTestException, InterruptedException {
+        List<List<HasMetadata>> groups = groupByKind(resources);
+        Collections.reverse(groups);
+        OpenShiftTestException failure = null;
+        for (List<HasMetadata> group : groups) {
+            try {
+                forEachInParallel(group, "delete", it -> {
+                    if (Boolean.TRUE.equals(oc.resource(it).delete())) {
+                        System.out.println(ansi().a("deleted ").a(it.getKind()).a(" ").fgYellow().a(it.getMetadata().getName()).reset());
+                    }
+                    return it;
+                });
+            } catch (OpenShiftTestException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static List<List<HasMetadata>> groupByKind(List<HasMetadata> resources) {
+        Map<Integer, List<HasMetadata>> groups = new TreeMap<>();
+        for (HasMetadata resource : resources) {
+            int order = KIND_ORDER.indexOf(resource.getKind());
+            if (order < 0) {
+                order = KIND_ORDER.size();
+            }
+            groups.computeIfAbsent(order, ignored -> new ArrayList<>()).add(resource);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static List<HasMetadata> forEachInParallel(List<HasMetadata> resources, String action,
+            Function<HasMetadata, HasMetadata> operation) throws OpenShiftTestException, InterruptedException {
+        int parallelism = Math.min(resources.size(), Config.get().getAsInt(PARALLELISM_CONFIG_KEY, 4));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(parallelism, 1), runnable -> {
+            Thread thread = new Thread(runnable, action + "-resources");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<HasMetadata>> futures = new ArrayList<>();
+            for (HasMetadata resource : resources) {
+                futures.add(executor.submit(() -> operation.apply(resource)));
+            }
+
+            List<HasMetadata> result = new ArrayList<>();
+            OpenShiftTestException failure = null;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    result.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    HasMetadata resource = resources.get(i);
+                    OpenShiftTestException exception = new OpenShiftTestException("Failed to " + action + " "
+                            + resource.getKind() + " " + resource.getMetadata().getName(), e.getCause());
+                    if (failure == null) {
+                        failure = exception;
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.openshift.client.NamespacedOpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.thorntail.openshift.test.config.Config;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// single instance of this class is shared for the entire test run
+// remembers the application deployed by a test class, so that the next test class can reuse it
+// if it deploys the exact same manifest; the application is undeployed at the end of the test run
+// test classes with additional resources or deployment customization methods never reuse the application,
+// because the manifest hash doesn't cover them
+final class ReusableDeployment implements CloseableResource {
+    static final String CONFIG_KEY = "ts.reuse-deployments";
+
+    static boolean isEnabled() {
+        // ephemeral namespaces are dropped after each test class, so there's nothing to reuse
+        return Config.get().getAsBoolean(CONFIG_KEY, false) && EphemeralNamespace.isDisabled();
+    }
+
+    private final OpenShiftClientResource clientResource;
+
+    private String namespace;
+    private String hash;
+    private Path manifest; // copy of the deployed manifest, null if nothing is deployed
+
+    ReusableDeployment(OpenShiftClientResource sharedClient) {
+        this.clientResource = sharedClient.retain();
+    }
+
+    synchronized boolean isDeployed(String namespace, String hash) {
+        return manifest != null && namespace.equals(this.namespace) && hash.equals(this.hash);
+    }
+
+    synchronized void deployed(String namespace, String hash, Path yaml) throws IOException {
+        forget();
+
+        this.namespace = namespace;
+        this.hash = hash;
+        this.manifest = Files.createTempFile("reusable-deployment", ".yml");
+        Files.copy(yaml, manifest, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // the application is left as is, it just won't be reused nor undeployed at the end of the test run
+    synchronized void forget() throws IOException {
+        if (manifest != null) {
+            Files.delete(manifest);
+            ManifestCache.evict(manifest);
+        }
+        namespace = null;
+        hash = null;
+        manifest = null;
+    }
+
+    synchronized void undeploy(OpenShiftClient oc) throws Exception {
+        if (manifest == null) {
+            return;
+        }
+
+        System.out.println("undeploying application");
+        if (ResourcesApplier.isEnabled()) {
+            OpenShiftClient namespacedClient = oc.adapt(NamespacedOpenShiftClient.class).inNamespace(namespace);
+            new ResourcesApplier(namespacedClient).delete(ManifestCache.get(manifest, namespacedClient));
+        } else {
+            new Command("oc", "delete", "-f", manifest.toString(), "--namespace", namespace, "--ignore-not-found")
+                    .runAndWait();
+        }
+        forget();
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        try {
+            undeploy(clientResource.client);
+        } finally {
+            clientResource.close();
+        }
+    }
+}
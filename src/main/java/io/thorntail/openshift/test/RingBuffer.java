@@ -0,0 +1,82 @@
+package io.thorntail.openshift.test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// output stream that keeps only the last N bytes written to it
+// memory is allocated as data arrive, so a container that logs little doesn't cost the full capacity
+final class RingBuffer extends OutputStream {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int capacity;
+    private byte[] data = EMPTY;
+    private int position;
+    private boolean wrapped;
+
+    RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be greater than 0, was " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        ensureRoom(1);
+        data[position] = (byte) b;
+        position++;
+        if (position == data.length) {
+            position = 0;
+            wrapped = true;
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        if (length >= capacity) {
+            if (data.length < capacity) {
+                data = new byte[capacity];
+            }
+            System.arraycopy(bytes, offset + length - capacity, data, 0, capacity);
+            position = 0;
+            wrapped = true;
+            return;
+        }
+
+        ensureRoom(length);
+        int untilEnd = Math.min(length, data.length - position);
+        System.arraycopy(bytes, offset, data, position, untilEnd);
+        System.arraycopy(bytes, offset + untilEnd, data, 0, length - untilEnd);
+        if (position + length >= data.length) {
+            wrapped = true;
+        }
+        position = (position + length) % data.length;
+    }
+
+    // until the buffer reaches its capacity, it grows so that writing `length` bytes never reaches its end,
+    // because that's where it would wrap
+    private void ensureRoom(int length) {
+        if (data.length == capacity || position + length < data.length) {
+            return;
+        }
+        int newLength = (int) Math.min(capacity, Math.max(2L * data.length, position + length + 1L));
+        data = Arrays.copyOf(data, newLength);
+    }
+
+    synchronized int size() {
+        return wrapped ? data.length : position;
+    }
+
+    // number of bytes currently allocated, never more than the capacity
+    synchronized int allocated() {
+        return data.length;
+    }
+
+    synchronized void writeTo(OutputStream out) throws IOException {
+        if (wrapped) {
+            out.write(data, position, data.length - position);
+        }
+        out.write(data, 0, position);
+    }
+}
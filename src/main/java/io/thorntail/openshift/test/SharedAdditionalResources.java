@@ -0,0 +1,159 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.thorntail.openshift.test.util.AwaitUtil;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+// single instance of this class is shared for the entire test run
+// keeps track of additional resources declared with `shared = true`, see AdditionalResources.shared()
+// the first test class that needs given resources deploys them, other test classes reuse them after checking
+// they are still ready; the number of test classes currently using the resources is counted, and the resources
+// are undeployed at the end of the test run, when they are no longer used
+// if a test class that used the resources failed and retain on failure is enabled, the resources are kept intact
+final class SharedAdditionalResources implements CloseableResource {
+    static boolean isEnabled(AdditionalResources annotation) {
+        // ephemeral namespaces are dropped after each test class, so there's nothing to share
+        return annotation.shared() && EphemeralNamespace.isDisabled();
+    }
+
+    private final OpenShiftClientResource clientResource;
+
+    // namespace + URL -> entry
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // all instances ever returned from `acquire`, including those that were deployed again later
+    private final Set<AdditionalResourcesDeployed> acquired = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    // in the order of first deployment, so that the resources can be undeployed in reverse order
+    private final List<Entry> deploymentOrder = new ArrayList<>();
+
+    SharedAdditionalResources(OpenShiftClientResource sharedClient) {
+        this.clientResource = sharedClient.retain();
+    }
+
+    AdditionalResourcesDeployed acquire(AdditionalResources annotation, TestsStatus testsStatus, OpenShiftClient oc,
+            AwaitUtil awaitUtil) throws Exception {
+        Entry entry = entries.computeIfAbsent(oc.getNamespace() + " " + annotation.value(), ignored -> new Entry());
+
+        // other test classes that need the same resources wait until they're deployed
+        synchronized (entry) {
+            if (entry.deployed != null) {
+                AdditionalResourcesDeployed.Status status = entry.deployed.status(oc);
+                if (status == AdditionalResourcesDeployed.Status.READY) {
+                    System.out.println(ansi().a("reusing shared ").fgYellow().a(annotation.value()).reset());
+                } else if (status == AdditionalResourcesDeployed.Status.NOT_READY) {
+                    System.out.println(ansi().a("reusing shared ").fgYellow().a(annotation.value()).reset()
+                            .a(", it isn't ready yet"));
+                    entry.deployed.awaitReadiness(awaitUtil);
+                } else {
+                    System.out.println(ansi().a("shared ").fgYellow().a(annotation.value()).reset()
+                            .a(" was deleted, deploying again"));
+                    entry.deployed.undeploy(oc);
+                    entry.deployed = null;
+                }
+            }
+
+            if (entry.deployed == null) {
+                entry.deployed = AdditionalResourcesDeployed.deploy(annotation, testsStatus, oc, awaitUtil);
+                synchronized (deploymentOrder) {
+                    if (!deploymentOrder.contains(entry)) {
+                        deploymentOrder.add(entry);
+                    }
+                }
+            }
+
+            entry.users++;
+            acquired.add(entry.deployed);
+            return entry.deployed;
+        }
+    }
+
+    boolean isShared(AdditionalResourcesDeployed deployed) {
+        return acquired.contains(deployed);
+    }
+
+    void release(AdditionalResourcesDeployed deployed, TestsStatus testsStatus) {
+        Entry entry = entries.get(deployed.namespace() + " " + deployed.url());
+        if (entry == null) {
+            return;
+        }
+
+        synchronized (entry) {
+            entry.users--;
+            if (RetainOnFailure.isEnabled() && testsStatus.failed) {
+                entry.retained = true;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            undeployAll();
+        } finally {
+            clientResource.close();
+        }
+    }
+
+    private void undeployAll() throws OpenShiftTestException {
+        List<Entry> toUndeploy = new ArrayList<>();
+        synchronized (deploymentOrder) {
+            for (int i = deploymentOrder.size() - 1; i >= 0; i--) {
+                Entry entry = deploymentOrder.get(i);
+                synchronized (entry) {
+                    if (entry.deployed == null) {
+                        continue;
+                    }
+                    if (entry.retained) {
+                        System.out.println(ansi().a("test using shared ").fgYellow().a(entry.deployed.url()).reset()
+                                .a(" failed, not deleting it"));
+                    } else if (entry.users > 0) {
+                        // shouldn't happen, test classes release the resources in their AfterAllCallback
+                        System.out.println(ansi().a("shared ").fgYellow().a(entry.deployed.url()).reset()
+                                .a(" is still in use, not deleting it"));
+                    } else {
+                        toUndeploy.add(entry);
+                    }
+                }
+            }
+            deploymentOrder.clear();
+        }
+
+        if (toUndeploy.isEmpty()) {
+            return;
+        }
+
+        OpenShiftTestException failure = null;
+        for (Entry entry : toUndeploy) {
+            try {
+                entry.deployed.undeploy(clientResource.client);
+            } catch (Exception e) {
+                OpenShiftTestException exception = new OpenShiftTestException("Couldn't undeploy shared "
+                        + entry.deployed.url(), e);
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Entry {
+        AdditionalResourcesDeployed deployed; // null if not deployed
+        int users;
+        boolean retained;
+    }
+}
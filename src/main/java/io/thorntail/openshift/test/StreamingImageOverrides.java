@@ -0,0 +1,230 @@
+package io.thorntail.openshift.test;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+// rewrites images in a YAML file without building the object model: the file is parsed into a stream of YAML events,
+// one document at a time, and the original text is copied to the output, except for the values that are overridden
+// only container `image`, image stream `spec.dockerImageRepository` and image stream `spec.tags[].from.name`
+// are ever changed, everything else (including formatting and comments) is kept intact
+// memory consumption doesn't depend on the file size
+final class StreamingImageOverrides {
+    private static final List<String> CONTAINER_KEYS = Arrays.asList("containers", "initContainers", "ephemeralContainers");
+
+    // values that can be written as plain scalars without any escaping
+    private static final Pattern PLAIN_SAFE = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._/:@+-]*");
+
+    static void rewrite(Path input, Path output, ImageOverridesConfig config) throws IOException {
+        try (Reader parsed = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             Reader copied = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            new StreamingImageOverrides(copied, writer, config).process(new Yaml().parse(parsed));
+        }
+    }
+
+    private final Reader reader;
+    private final Writer writer;
+    private final ImageOverridesConfig config;
+
+    // position in the input, in code points (which is what YAML marks count)
+    private int position;
+
+    private final List<Frame> stack = new ArrayList<>();
+
+    private StreamingImageOverrides(Reader reader, Writer writer, ImageOverridesConfig config) {
+        this.reader = reader;
+        this.writer = writer;
+        this.config = config;
+    }
+
+    private void process(Iterable<Event> events) throws IOException {
+        for (Event event : events) {
+            switch (event.getEventId()) {
+                case DocumentStart:
+                    stack.clear();
+                    break;
+                case MappingStart:
+                case SequenceStart:
+                    collectionStarted(event.is(Event.ID.MappingStart));
+                    break;
+                case MappingEnd:
+                case SequenceEnd:
+                    stack.remove(stack.size() - 1);
+                    nodeFinished();
+                    break;
+                case Scalar:
+                    scalar((ScalarEvent) event);
+                    break;
+                case Alias:
+                    nodeName();
+                    nodeFinished();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // the rest of the input
+        copyUntil(Integer.MAX_VALUE);
+    }
+
+    private void collectionStarted(boolean mapping) {
+        Frame parent = parent();
+        String name = nodeName();
+        // nothing in a complex mapping key or its value is rewritten, even if it looks like a list of containers
+        boolean inKey = name == null || parent != null && parent.inKey;
+        stack.add(new Frame(mapping, name, inKey));
+    }
+
+    private void scalar(ScalarEvent event) throws IOException {
+        Frame parent = parent();
+        if (parent != null && parent.mapping && parent.expectingKey) {
+            parent.key = event.getValue();
+            parent.expectingKey = false;
+            return;
+        }
+
+        String name = nodeName();
+        if (isImage(name)) {
+            String value = event.getValue();
+            String override = config.overrideFor(value);
+            if (!override.equals(value)) {
+                if (event.getAnchor() != null || event.getTag() != null) {
+                    // replacing the value would also remove the anchor or tag
+                    System.out.println(ansi().a("not overriding image ").fgYellow().a(value).reset()
+                            .a(", it has an anchor or a tag"));
+                } else {
+                    copyUntil(event.getStartMark().getIndex());
+                    skipUntil(event.getEndMark().getIndex());
+                    writer.write(format(override, event.getScalarStyle()));
+                }
+            }
+        }
+        nodeFinished();
+    }
+
+    private boolean isImage(String name) {
+        int size = stack.size();
+        if (size > 0 && stack.get(size - 1).inKey) {
+            return false;
+        }
+        if ("image".equals(name)) {
+            // containers[].image
+            return size >= 2 && "[]".equals(stack.get(size - 1).name)
+                    && CONTAINER_KEYS.contains(stack.get(size - 2).name);
+        } else if ("dockerImageRepository".equals(name)) {
+            // spec.dockerImageRepository
+            return size >= 1 && "spec".equals(stack.get(size - 1).name);
+        } else if ("name".equals(name)) {
+            // spec.tags[].from.name
+            return size >= 4 && "from".equals(stack.get(size - 1).name)
+                    && "[]".equals(stack.get(size - 2).name)
+                    && "tags".equals(stack.get(size - 3).name)
+                    && "spec".equals(stack.get(size - 4).name);
+        }
+        return false;
+    }
+
+    private static String format(String value, DumperOptions.ScalarStyle style) {
+        if (style == DumperOptions.ScalarStyle.SINGLE_QUOTED) {
+            return "'" + value.replace("'", "''") + "'";
+        }
+        if (style == DumperOptions.ScalarStyle.PLAIN && PLAIN_SAFE.matcher(value).matches()) {
+            return value;
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    // name of the node that is about to start: its key in the parent mapping, `[]` in a sequence,
+    // empty for the document root and null if the node itself is a mapping key
+    private String nodeName() {
+        Frame parent = parent();
+        if (parent == null) {
+            return "";
+        }
+        if (!parent.mapping) {
+            return "[]";
+        }
+        if (parent.expectingKey) {
+            // complex mapping key, not interesting
+            parent.key = null;
+            parent.keyIsComplex = true;
+            return null;
+        }
+        return parent.key;
+    }
+
+    private void nodeFinished() {
+        Frame parent = parent();
+        if (parent != null && parent.mapping) {
+            if (parent.keyIsComplex) {
+                parent.keyIsComplex = false;
+                parent.expectingKey = false;
+            } else {
+                parent.expectingKey = true;
+            }
+        }
+    }
+
+    private Frame parent() {
+        return stack.isEmpty() ? null : stack.get(stack.size() - 1);
+    }
+
+    private void copyUntil(int index) throws IOException {
+        transfer(index, true);
+    }
+
+    private void skipUntil(int index) throws IOException {
+        transfer(index, false);
+    }
+
+    private void transfer(int index, boolean copy) throws IOException {
+        while (position < index) {
+            int c = reader.read();
+            if (c == -1) {
+                return;
+            }
+            if (copy) {
+                writer.write(c);
+            }
+            if (Character.isHighSurrogate((char) c)) {
+                int low = reader.read();
+                if (low != -1 && copy) {
+                    writer.write(low);
+                }
+            }
+            position++;
+        }
+    }
+
+    private static final class Frame {
+        final boolean mapping;
+        final String name;
+        final boolean inKey;
+
+        boolean expectingKey = true;
+        boolean keyIsComplex;
+        String key;
+
+        Frame(boolean mapping, String name, boolean inKey) {
+            this.mapping = mapping;
+            this.name = name;
+            this.inKey = inKey;
+        }
+    }
+}
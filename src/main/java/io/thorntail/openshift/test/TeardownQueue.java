@@ -0,0 +1,152 @@
+package io.thorntail.openshift.test;
+
+import io.thorntail.openshift.test.config.Config;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+// single instance of this class is shared for the entire test run
+// performs teardown of test classes (undeployment, namespace deletion) in the background, so that the next test class
+// doesn't have to wait for it
+// - tasks in the same namespace run one after another, in the order of submission; tasks in different namespaces
+//   run in parallel
+// - before a test class deploys anything into a namespace, it waits for all pending tasks in that namespace,
+//   so that the teardown of previous test class can't delete resources of the next one
+// - at the end of the test run (or when the JVM shuts down prematurely), all pending tasks are awaited
+//   and their failures are reported
+final class TeardownQueue implements CloseableResource {
+    static final String CONFIG_KEY = "ts.background-teardown";
+
+    static boolean isEnabled() {
+        return Config.get().getAsBoolean(CONFIG_KEY, false);
+    }
+
+    interface Task {
+        void run() throws Exception;
+    }
+
+    private final OpenShiftClientResource clientResource;
+    private final ExecutorService executor;
+    private final Thread shutdownHook;
+
+    // namespace -> last task submitted in that namespace
+    private final Map<String, CompletableFuture<Void>> lastTasks = new HashMap<>();
+    private final List<CompletableFuture<Void>> allTasks = new ArrayList<>();
+    private final List<Exception> failures = new ArrayList<>();
+
+    TeardownQueue(OpenShiftClientResource sharedClient) {
+        // the tasks use the shared client (through namespaced views), so it must stay open until they finish
+        this.clientResource = sharedClient.retain();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "teardown");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shutdownHook = new Thread(this::awaitAll, "teardown-shutdown-hook");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    synchronized void submit(String namespace, String description, Task task) {
+        CompletableFuture<Void> previous = lastTasks.getOrDefault(namespace, CompletableFuture.completedFuture(null));
+        // failures are recorded by `run`, so the previous task always completes normally
+        CompletableFuture<Void> next = previous.thenRunAsync(() -> run(description, task), executor);
+        lastTasks.put(namespace, next);
+        allTasks.add(next);
+    }
+
+    private void run(String description, Task task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            System.out.println(ansi().a("background teardown failed: ").fgYellow().a(description).reset()
+                    .a(": ").a(e.getMessage()));
+            synchronized (failures) {
+                failures.add(new OpenShiftTestException("Background teardown failed: " + description, e));
+            }
+        }
+    }
+
+    void awaitNamespace(String namespace) throws InterruptedException, OpenShiftTestException {
+        CompletableFuture<Void> last;
+        synchronized (this) {
+            last = lastTasks.get(namespace);
+        }
+        if (last == null || last.isDone()) {
+            return;
+        }
+
+        System.out.println(ansi().a("waiting for teardown of previous test class in namespace ")
+                .fgYellow().a(namespace).reset());
+        try {
+            last.get(DefaultTimeout.getMinutes(), TimeUnit.MINUTES);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new OpenShiftTestException("Teardown of previous test class in namespace " + namespace
+                    + " didn't finish", e);
+        }
+    }
+
+    // returns true if all tasks finished in time
+    private boolean awaitAll() {
+        CompletableFuture<?>[] tasks;
+        synchronized (this) {
+            tasks = allTasks.toArray(new CompletableFuture<?>[0]);
+        }
+        if (tasks.length == 0) {
+            return true;
+        }
+
+        try {
+            CompletableFuture.allOf(tasks).get(DefaultTimeout.getMinutes(), TimeUnit.MINUTES);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws OpenShiftTestException {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // the JVM is already shutting down, the hook is running
+        }
+
+        try {
+            boolean finished = awaitAll();
+            executor.shutdownNow();
+
+            OpenShiftTestException failure = null;
+            if (!finished) {
+                failure = new OpenShiftTestException("Background teardown didn't finish in time");
+            }
+            synchronized (failures) {
+                for (Exception e : failures) {
+                    if (failure == null) {
+                        failure = new OpenShiftTestException(e.getMessage(), e.getCause());
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            clientResource.close();
+        }
+    }
+}
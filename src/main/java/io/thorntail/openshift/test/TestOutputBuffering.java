@@ -0,0 +1,80 @@
+package io.thorntail.openshift.test;
+
+import io.thorntail.openshift.test.config.Config;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// single instance of this class is shared for the entire test run
+// when test methods run concurrently, everything a test method prints to `System.out` (on the thread that runs it)
+// is buffered and printed at once when the test method finishes, so that outputs of concurrent test methods
+// don't interleave; output printed by other threads (and outside of test methods) is printed directly
+final class TestOutputBuffering implements CloseableResource {
+    static final String CONFIG_KEY = "ts.concurrent-tests";
+
+    static boolean isEnabled() {
+        return Config.get().getAsBoolean(CONFIG_KEY, false);
+    }
+
+    private final PrintStream original;
+    private final PrintStream routing;
+    private final ThreadLocal<ByteArrayOutputStream> buffers = new ThreadLocal<>();
+
+    TestOutputBuffering() {
+        this.original = System.out;
+        this.routing = new PrintStream(new RoutingOutputStream(), true);
+        System.setOut(routing);
+    }
+
+    void start() {
+        buffers.set(new ByteArrayOutputStream());
+    }
+
+    void finish() {
+        ByteArrayOutputStream buffer = buffers.get();
+        buffers.remove();
+        if (buffer != null) {
+            // a single write to the original stream, which is synchronized
+            original.write(buffer.toByteArray(), 0, buffer.size());
+            original.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (System.out == routing) {
+            System.setOut(original);
+        }
+    }
+
+    private final class RoutingOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+            ByteArrayOutputStream buffer = buffers.get();
+            if (buffer != null) {
+                buffer.write(b);
+            } else {
+                original.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ByteArrayOutputStream buffer = buffers.get();
+            if (buffer != null) {
+                buffer.write(b, off, len);
+            } else {
+                original.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (buffers.get() == null) {
+                original.flush();
+            }
+        }
+    }
+}
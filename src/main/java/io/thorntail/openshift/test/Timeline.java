@@ -0,0 +1,51 @@
+package io.thorntail.openshift.test;
+
+/**
+ * Records how long individual phases of a test class take (such as deploying the application or awaiting
+ * its readiness). The recorded phases are exported at the end of the test run, see {@link TimelineRecorder}.
+ */
+public final class Timeline {
+    private static final Timeline DISABLED = new Timeline(null, null);
+
+    private static final Span NO_OP = () -> {
+    };
+
+    /**
+     * Returns a timeline that doesn't record anything.
+     */
+    public static Timeline disabled() {
+        return DISABLED;
+    }
+
+    private final TimelineRecorder recorder;
+    private final String testClass;
+
+    Timeline(TimelineRecorder recorder, String testClass) {
+        this.recorder = recorder;
+        this.testClass = testClass;
+    }
+
+    public Span span(String phase) {
+        return span(phase, null);
+    }
+
+    /**
+     * Starts measuring given phase. The phase ends when the returned {@code Span} is closed.
+     *
+     * @param detail additional information about the phase, such as resource name, may be {@code null}
+     */
+    public Span span(String phase, String detail) {
+        if (recorder == null) {
+            return NO_OP;
+        }
+
+        Thread thread = Thread.currentThread();
+        long start = System.nanoTime();
+        return () -> recorder.record(phase, testClass, detail, thread, start, System.nanoTime());
+    }
+
+    public interface Span extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
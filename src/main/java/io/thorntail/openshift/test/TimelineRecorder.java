@@ -0,0 +1,152 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.thorntail.openshift.test.config.Config;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.fusesource.jansi.Ansi.ansi;
+
+// single instance of this class is shared for the entire test run
+// collects phases recorded by all test classes and when the test run ends, writes them to `target` as:
+// - a JSON report with total duration of each phase, overall and per test class
+// - a timeline in the Chrome trace event format, which can be opened in chrome://tracing or https://ui.perfetto.dev
+final class TimelineRecorder implements CloseableResource {
+    static final String CONFIG_KEY = "ts.timeline";
+
+    static boolean isEnabled() {
+        return Config.get().getAsBoolean(CONFIG_KEY, false);
+    }
+
+    private final Instant startTime = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final List<Event> events = new ArrayList<>();
+
+    synchronized void record(String phase, String testClass, String detail, Thread thread, long start, long end) {
+        events.add(new Event(phase, testClass, detail, thread, start - startNanos, end - start));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Path report = Paths.get("target", "openshift-test-report.json");
+        Path trace = Paths.get("target", "openshift-test-timeline.json");
+        Files.createDirectories(report.getParent());
+
+        Serialization.jsonMapper().writerWithDefaultPrettyPrinter().writeValue(report.toFile(), report());
+        Serialization.jsonMapper().writeValue(trace.toFile(), trace());
+
+        System.out.println(ansi().a("timeline of the test run written to ").fgYellow().a(report).reset()
+                .a(" and ").fgYellow().a(trace).reset());
+    }
+
+    private Map<String, Object> report() {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> classes = new LinkedHashMap<>();
+        for (Event event : events) {
+            phases.merge(event.phase, millis(event.duration), Long::sum);
+            if (event.testClass != null) {
+                classes.computeIfAbsent(event.testClass, ignored -> new LinkedHashMap<>())
+                        .merge(event.phase, millis(event.duration), Long::sum);
+            }
+        }
+
+        List<Map<String, Object>> classesReport = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Long>> entry : classes.entrySet()) {
+            Map<String, Object> classReport = new LinkedHashMap<>();
+            classReport.put("class", entry.getKey());
+            classReport.put("phasesMillis", entry.getValue());
+            classesReport.add(classReport);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("start", startTime.toString());
+        result.put("phasesMillis", phases);
+        result.put("classes", classesReport);
+        return result;
+    }
+
+    private Map<String, Object> trace() {
+        List<Map<String, Object>> traceEvents = new ArrayList<>();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Event event : events) {
+            threads.putIfAbsent(event.threadId, event.threadName);
+
+            Map<String, Object> args = new LinkedHashMap<>();
+            if (event.testClass != null) {
+                args.put("class", event.testClass);
+            }
+            if (event.detail != null) {
+                args.put("detail", event.detail);
+            }
+
+            Map<String, Object> traceEvent = new LinkedHashMap<>();
+            traceEvent.put("name", event.detail != null ? event.phase + " " + event.detail : event.phase);
+            traceEvent.put("cat", event.phase);
+            traceEvent.put("ph", "X");
+            traceEvent.put("ts", micros(event.start));
+            traceEvent.put("dur", micros(event.duration));
+            traceEvent.put("pid", 1);
+            traceEvent.put("tid", event.threadId);
+            traceEvent.put("args", args);
+            traceEvents.add(traceEvent);
+        }
+
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("name", "thread_name");
+            metadata.put("ph", "M");
+            metadata.put("pid", 1);
+            metadata.put("tid", thread.getKey());
+            metadata.put("args", Collections.singletonMap("name", thread.getValue()));
+            traceEvents.add(metadata);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("traceEvents", traceEvents);
+        result.put("displayTimeUnit", "ms");
+        return result;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static final class Event {
+        final String phase;
+        final String testClass;
+        final String detail;
+        final long threadId;
+        final String threadName;
+        final long start;
+        final long duration;
+
+        Event(String phase, String testClass, String detail, Thread thread, long start, long duration) {
+            this.phase = phase;
+            this.testClass = testClass;
+            this.detail = detail;
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+            this.start = start;
+            this.duration = duration;
+        }
+    }
+}
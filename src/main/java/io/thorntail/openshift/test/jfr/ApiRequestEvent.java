@@ -0,0 +1,21 @@
+package io.thorntail.openshift.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.thorntail.openshift.test.ApiRequest")
+@Label("OpenShift API Request")
+@Description("HTTP request made by the OpenShift client")
+@Category("Thorntail OpenShift Test")
+final class ApiRequestEvent extends jdk.jfr.Event {
+    @Label("Method")
+    String method;
+
+    @Label("URL")
+    String url;
+
+    @Label("Status Code")
+    int statusCode;
+}
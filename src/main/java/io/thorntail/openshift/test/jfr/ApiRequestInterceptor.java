@@ -0,0 +1,31 @@
+package io.thorntail.openshift.test.jfr;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+final class ApiRequestInterceptor implements Interceptor {
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+
+        ApiRequestEvent event = new ApiRequestEvent();
+        event.begin();
+        int statusCode = -1;
+        try {
+            Response response = chain.proceed(request);
+            statusCode = response.code();
+            return response;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.method();
+                event.url = request.url().toString();
+                event.statusCode = statusCode;
+                event.commit();
+            }
+        }
+    }
+}
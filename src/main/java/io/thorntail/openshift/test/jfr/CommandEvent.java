@@ -0,0 +1,18 @@
+package io.thorntail.openshift.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.thorntail.openshift.test.Command")
+@Label("Command")
+@Description("External process launched by the test framework, such as `oc`")
+@Category("Thorntail OpenShift Test")
+final class CommandEvent extends jdk.jfr.Event {
+    @Label("Command")
+    String command;
+
+    @Label("Exit Code")
+    int exitCode;
+}
@@ -0,0 +1,47 @@
+package io.thorntail.openshift.test.jfr;
+
+import okhttp3.Interceptor;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.IntConsumer;
+
+// the only entry point to classes that depend on `jdk.jfr`, must not be loaded when `jdk.jfr` isn't present
+final class Events {
+    static Interceptor apiRequestInterceptor() {
+        return new ApiRequestInterceptor();
+    }
+
+    static boolean poll(String description, Callable<Boolean> condition) throws Exception {
+        PollEvent event = new PollEvent();
+        event.begin();
+        boolean satisfied = false;
+        try {
+            satisfied = condition.call();
+            return satisfied;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.condition = description;
+                event.satisfied = satisfied;
+                event.commit();
+            }
+        }
+    }
+
+    static IntConsumer commandLaunched(List<String> command) {
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        return exitCode -> {
+            event.end();
+            if (event.shouldCommit()) {
+                event.command = String.join(" ", command);
+                event.exitCode = exitCode;
+                event.commit();
+            }
+        };
+    }
+
+    private Events() {
+    }
+}
@@ -0,0 +1,86 @@
+package io.thorntail.openshift.test.jfr;
+
+import io.thorntail.openshift.test.OpenShiftTestException;
+import okhttp3.OkHttpClient;
+import org.awaitility.core.ThrowingRunnable;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.IntConsumer;
+
+/**
+ * Emits JDK Flight Recorder events for OpenShift API requests, poll iterations and process launches,
+ * so that running the tests with {@code -XX:StartFlightRecording} shows how many API round-trips and forks
+ * each test class costs.
+ * <p>
+ * The event classes are only loaded when the {@code jdk.jfr} API is present, on other JVMs all methods
+ * of this class do nothing. When JFR is present but not recording, the overhead is negligible.
+ */
+public final class JfrEvents {
+    private static final boolean AVAILABLE = isJfrPresent();
+
+    private static boolean isJfrPresent() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a client that records each HTTP request it makes, or given client if JFR isn't present.
+     * The returned client shares connection pool and dispatcher with given client.
+     */
+    public static OkHttpClient recordApiRequests(OkHttpClient client) {
+        if (!AVAILABLE) {
+            return client;
+        }
+        return client.newBuilder().addInterceptor(Events.apiRequestInterceptor()).build();
+    }
+
+    /**
+     * Returns a condition that records each of its evaluations, or given condition if JFR isn't present.
+     */
+    public static Callable<Boolean> recordPolls(String description, Callable<Boolean> condition) {
+        if (!AVAILABLE) {
+            return condition;
+        }
+        return () -> Events.poll(description, condition);
+    }
+
+    /**
+     * Returns an assertion that records each of its evaluations, or given assertion if JFR isn't present.
+     */
+    public static ThrowingRunnable recordPolls(String description, ThrowingRunnable assertion) {
+        if (!AVAILABLE) {
+            return assertion;
+        }
+        return () -> Events.poll(description, () -> {
+            try {
+                assertion.run();
+            } catch (Error | RuntimeException e) {
+                // assertion errors must reach Awaitility as is, so that it keeps polling
+                throw e;
+            } catch (Throwable e) {
+                throw new OpenShiftTestException("Assertion failed: " + description, e);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Marks the start of an external command. The returned callback must be invoked with the exit code
+     * when the command finishes, or with {@code -1} when it doesn't finish normally.
+     */
+    public static IntConsumer commandLaunched(List<String> command) {
+        if (!AVAILABLE) {
+            return ignored -> {
+            };
+        }
+        return Events.commandLaunched(command);
+    }
+
+    private JfrEvents() {
+    }
+}
@@ -0,0 +1,18 @@
+package io.thorntail.openshift.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.thorntail.openshift.test.Poll")
+@Label("Poll")
+@Description("Single evaluation of a condition that the test framework awaits")
+@Category("Thorntail OpenShift Test")
+final class PollEvent extends jdk.jfr.Event {
+    @Label("Condition")
+    String condition;
+
+    @Label("Satisfied")
+    boolean satisfied;
+}
@@ -8,32 +8,52 @@ import io.thorntail.openshift.test.AllAppsMetadata;
 import io.thorntail.openshift.test.AppMetadata;
 import io.thorntail.openshift.test.DefaultTimeout;
 import io.thorntail.openshift.test.OpenShiftTestException;
+import io.thorntail.openshift.test.Timeline;
+import io.thorntail.openshift.test.config.Config;
+import io.thorntail.openshift.test.jfr.JfrEvents;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
-import static io.restassured.RestAssured.given;
-import static org.awaitility.Awaitility.await;
 import static org.fusesource.jansi.Ansi.ansi;
 
 public final class AwaitUtil {
+    private static final String CONCURRENT_CONFIG_KEY = "ts.await-apps-concurrently";
+
     private final OpenShiftClient oc;
     private final DiscoveryUtil discovery;
     private final AllAppsMetadata apps;
+    private final Timeline timeline;
 
     public AwaitUtil(OpenShiftClient oc, DiscoveryUtil discovery, AllAppsMetadata apps) {
+        this(oc, discovery, apps, Timeline.disabled());
+    }
+
+    public AwaitUtil(OpenShiftClient oc, DiscoveryUtil discovery, AllAppsMetadata apps, Timeline timeline) {
         this.oc = oc;
         this.discovery = discovery;
         this.apps = apps;
+        this.timeline = timeline;
     }
 
     public void awaitImageStream(String imageStream) {
         System.out.println(ansi().a("waiting for image stream ").fgYellow().a(imageStream).reset().a(" to populate"));
-        await().atMost(DefaultTimeout.getMinutes(), TimeUnit.MINUTES).until(imageStreamHasTags(oc, imageStream));
+        PollingPolicy.forPhase(PollingPolicy.IMAGE_STREAM).await()
+                .atMost(DefaultTimeout.getMinutes(), TimeUnit.MINUTES).until(JfrEvents.recordPolls(
+                "image stream " + imageStream + " to populate", imageStreamHasTags(oc, imageStream)));
     }
 
     private static Callable<Boolean> imageStreamHasTags(OpenShiftClient oc, String imageStream) {
@@ -41,62 +61,131 @@ public final class AwaitUtil {
     }
 
     public void awaitKnownApps() {
+        if (apps.all.size() > 1 && Config.get().getAsBoolean(CONCURRENT_CONFIG_KEY, false)) {
+            awaitKnownAppsConcurrently();
+            return;
+        }
+
         for (AppMetadata app : apps.all) {
             awaitApp(app.name);
         }
     }
 
+    // all apps share a single deadline, failures are collected and reported together
+    // the exceptions are unchecked, same as those thrown by Awaitility when the apps are awaited one by one
+    private void awaitKnownAppsConcurrently() {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(DefaultTimeout.getMinutes());
+        Supplier<Duration> timeout = () -> Duration.ofNanos(Math.max(deadline - System.nanoTime(), 1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(apps.all.size(), runnable -> {
+            Thread thread = new Thread(runnable, "await-apps");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<String, Future<?>> futures = new LinkedHashMap<>();
+            for (AppMetadata app : apps.all) {
+                futures.put(app.name, executor.submit(() -> awaitApp(app.name, timeout)));
+            }
+
+            List<String> failedApps = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+                try {
+                    entry.getValue().get();
+                } catch (ExecutionException e) {
+                    failedApps.add(entry.getKey());
+                    failures.add(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for apps to become ready", e);
+                }
+            }
+
+            if (!failedApps.isEmpty()) {
+                IllegalStateException exception = new IllegalStateException("Apps didn't become ready: " + failedApps);
+                failures.forEach(exception::addSuppressed);
+                throw exception;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     public void awaitApp(String name) {
+        awaitApp(name, () -> Duration.ofMinutes(DefaultTimeout.getMinutes()));
+    }
+
+    private void awaitApp(String name, Supplier<Duration> timeout) {
         awaitReadiness(Arrays.asList(
                 oc.deploymentConfigs().withName(name).get(),
                 oc.apps().deployments().withName(name).get(),
                 oc.extensions().deployments().withName(name).get()
-        ));
+        ), timeout);
 
-        Optional<String> baseUrl = discovery.getRouteUrl(name);
+        Optional<RouteClient> routeClient = discovery.getRouteClient(name);
         Optional<String> knownEndpoint = discovery.getKnownEndpoint(name);
 
-        if (!baseUrl.isPresent() || !knownEndpoint.isPresent()) {
+        if (!routeClient.isPresent() || !knownEndpoint.isPresent()) {
             return;
         }
 
         System.out.println(ansi().a("waiting for route ").fgYellow().a(name).reset()
                 .a(" to start responding at ").fgYellow().a(knownEndpoint.get()).reset());
-        await().ignoreExceptions().atMost(DefaultTimeout.getMinutes(), TimeUnit.MINUTES).untilAsserted(() -> {
-            given()
-                    .baseUri(baseUrl.get())
-                    .basePath(knownEndpoint.get())
-            .when()
-                    .get()
-            .then()
-                    .statusCode(200);
-        });
+        Timeline.Span warmUp = timeline.span("route warm-up", name);
+        try {
+            PollingPolicy.forPhase(PollingPolicy.ROUTE_WARM_UP).await().ignoreExceptions().atMost(timeout.get())
+                    .untilAsserted(JfrEvents.recordPolls("route " + name + " to start responding", () -> {
+                // connections to the route are kept alive between polls and later reused by the tests
+                routeClient.get().given()
+                        .basePath(knownEndpoint.get())
+                .when()
+                        .get()
+                .then()
+                        .statusCode(200);
+            }));
+        } finally {
+            warmUp.close();
+        }
     }
 
     public void awaitReadiness(List<HasMetadata> resources) {
+        awaitReadiness(resources, () -> Duration.ofMinutes(DefaultTimeout.getMinutes()));
+    }
+
+    private void awaitReadiness(List<HasMetadata> resources, Supplier<Duration> timeout) {
         resources.stream()
                 .filter(Objects::nonNull)
                 .filter(ReadinessUtil::isReadinessApplicable)
                 .forEach(it -> {
+                    String description = readableKind(it.getKind()) + " " + it.getMetadata().getName();
                     System.out.println(ansi().a("waiting for ").a(readableKind(it.getKind())).a(" ")
                             .fgYellow().a(it.getMetadata().getName()).reset().a(" to become ready"));
-                    await().pollInterval(1, TimeUnit.SECONDS)
-                            .atMost(DefaultTimeout.getMinutes(), TimeUnit.MINUTES)
-                            .until(() -> {
-                                HasMetadata current = oc.resource(it).fromServer().get();
-                                if (current == null) {
-                                    ResourceHandler<HasMetadata, ?> handler = Handlers.get(it.getKind(), it.getApiVersion());
-                                    if (handler != null && !handler.getApiVersion().equals(it.getApiVersion())) {
+                    Timeline.Span readiness = timeline.span("readiness", description);
+                    try {
+                        WatchingAwait.<HasMetadata>until(description + " to become ready",
+                                watcher -> oc.resource(it).watch(watcher),
+                                ReadinessUtil::isReady,
+                                () -> {
+                                    HasMetadata current = oc.resource(it).fromServer().get();
+                                    if (current == null) {
+                                        ResourceHandler<HasMetadata, ?> handler = Handlers.get(it.getKind(), it.getApiVersion());
+                                        if (handler != null && !handler.getApiVersion().equals(it.getApiVersion())) {
+                                            throw new OpenShiftTestException("Couldn't load " + readableKind(it.getKind()) + " '"
+                                                    + it.getMetadata().getName() + "' from API server, most likely because"
+                                                    + " the 'apiVersion' doesn't match: has '" + it.getApiVersion() + "', but"
+                                                    + " should have '" + handler.getApiVersion() + "'");
+                                        }
                                         throw new OpenShiftTestException("Couldn't load " + readableKind(it.getKind()) + " '"
-                                                + it.getMetadata().getName() + "' from API server, most likely because"
-                                                + " the 'apiVersion' doesn't match: has '" + it.getApiVersion() + "', but"
-                                                + " should have '" + handler.getApiVersion() + "'");
+                                                + it.getMetadata().getName() + "' from API server");
                                     }
-                                    throw new OpenShiftTestException("Couldn't load " + readableKind(it.getKind()) + " '"
-                                            + it.getMetadata().getName() + "' from API server");
-                                }
-                                return ReadinessUtil.isReady(current);
-                            });
+                                    return ReadinessUtil.isReady(current);
+                                },
+                                timeout.get(),
+                                PollingPolicy.forPhase(PollingPolicy.READINESS));
+                    } finally {
+                        readiness.close();
+                    }
                 });
     }
 
@@ -4,28 +4,66 @@ import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.PodTemplateSpec;
 import io.fabric8.kubernetes.api.model.Probe;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.SharedInformerFactory;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.openshift.api.model.DeploymentConfig;
 import io.fabric8.openshift.api.model.Route;
 import io.fabric8.openshift.client.OpenShiftClient;
+import io.thorntail.openshift.test.config.Config;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+/**
+ * Looks up routes and known endpoints of applications. Routes, deployment configs and deployments are kept
+ * in a local cache by shared informers (one set per namespace), so repeated lookups don't have to go
+ * to the API server. Resources that aren't in the cache (e.g. because they were just created, or because
+ * the informers aren't allowed to list and watch them) are always looked up directly, so a miss is never cached.
+ * Caching can be disabled altogether using {@code -Dts.disable-discovery-cache}.
+ * <p>
+ * Also provides a {@link RouteClient} for each route, which is shared by all users of this object.
+ * <p>
+ * The informers and route clients are stopped when this object is closed, which the test framework does automatically.
+ */
 // TODO some code duplication between AllAppsMetadataReader and DiscoveryUtil
-public final class DiscoveryUtil {
+public final class DiscoveryUtil implements AutoCloseable {
+    private static final String CACHE_DISABLED_CONFIG_KEY = "ts.disable-discovery-cache";
+
     // TODO Thorntail-specific
     private static final String HEALTH = "/health";
     private static final String HEALTH_LIVE = "/health/live";
     private static final String HEALTH_READY = "/health/ready";
 
     private final OpenShiftClient oc;
+    private final boolean cacheEnabled;
+    private final Map<String, NamespaceCache> caches = new ConcurrentHashMap<>();
+    // route URL -> client, so that a route whose host changes gets a new client
+    private final Map<String, RouteClient> routeClients = new ConcurrentHashMap<>();
 
     public DiscoveryUtil(OpenShiftClient oc) {
         this.oc = oc;
+        this.cacheEnabled = !Config.get().getAsBoolean(CACHE_DISABLED_CONFIG_KEY, false);
     }
 
     public Optional<String> getKnownEndpoint(String appName) {
+        if (cacheEnabled) {
+            NamespaceCache cache = caches.computeIfAbsent(oc.getNamespace(), NamespaceCache::new);
+            PodTemplateSpec podTemplate = cache.podTemplate(appName);
+            if (podTemplate != null) {
+                return Optional.of(findKnownEndpoint(podTemplate));
+            }
+        }
+
+        return lookupKnownEndpoint(appName);
+    }
+
+    private Optional<String> lookupKnownEndpoint(String appName) {
         // exactly one is supposed to exist
         List<? extends HasMetadata> possibleDeployment = Arrays.asList(
                 oc.deploymentConfigs().withName(appName).get(),
@@ -82,12 +120,95 @@ public final class DiscoveryUtil {
     }
 
     public Optional<String> getRouteUrl(String routeName, String namespace) {
+        if (cacheEnabled) {
+            NamespaceCache cache = caches.computeIfAbsent(namespace != null ? namespace : oc.getNamespace(),
+                    NamespaceCache::new);
+            Route route = cache.route(routeName);
+            if (route != null) {
+                return Optional.of(routeUrl(route));
+            }
+        }
+
+        return lookupRouteUrl(routeName, namespace);
+    }
+
+    public Optional<RouteClient> getRouteClient(String routeName) {
+        return getRouteClient(routeName, null);
+    }
+
+    public Optional<RouteClient> getRouteClient(String routeName, String namespace) {
+        return getRouteUrl(routeName, namespace).map(url -> routeClients.computeIfAbsent(url, RouteClient::new));
+    }
+
+    private Optional<String> lookupRouteUrl(String routeName, String namespace) {
         Route route = oc.routes().inNamespace(namespace).withName(routeName).get();
         if (route == null) {
             return Optional.empty();
         }
+        return Optional.of(routeUrl(route));
+    }
+
+    private static String routeUrl(Route route) {
         return route.getSpec().getTls() != null
-                ? Optional.of("https://" + route.getSpec().getHost())
-                : Optional.of("http://" + route.getSpec().getHost());
+                ? "https://" + route.getSpec().getHost()
+                : "http://" + route.getSpec().getHost();
+    }
+
+    /**
+     * Stops the informers and closes all route clients.
+     */
+    @Override
+    public void close() {
+        caches.values().forEach(NamespaceCache::stop);
+        caches.clear();
+        routeClients.values().forEach(RouteClient::close);
+        routeClients.clear();
+    }
+
+    // local copies of routes, deployment configs and deployments in a single namespace, kept up to date by informers
+    // until the informers list the resources for the first time, or if they can't list them at all, the copies
+    // are empty and all lookups go to the API server
+    private final class NamespaceCache {
+        private final String namespace;
+        private final SharedInformerFactory informers;
+        private final SharedIndexInformer<Route> routes;
+        private final SharedIndexInformer<DeploymentConfig> deploymentConfigs;
+        private final SharedIndexInformer<Deployment> deployments;
+
+        NamespaceCache(String namespace) {
+            this.namespace = namespace;
+            this.informers = oc.informers().inNamespace(namespace);
+            this.routes = informers.sharedIndexInformerFor(Route.class, 0);
+            this.deploymentConfigs = informers.sharedIndexInformerFor(DeploymentConfig.class, 0);
+            this.deployments = informers.sharedIndexInformerFor(Deployment.class, 0);
+            informers.startAllRegisteredInformers();
+        }
+
+        // null if not cached
+        Route route(String name) {
+            return routes.getIndexer().getByKey(Cache.namespaceKeyFunc(namespace, name));
+        }
+
+        // null if not cached
+        PodTemplateSpec podTemplate(String appName) {
+            String key = Cache.namespaceKeyFunc(namespace, appName);
+            DeploymentConfig deploymentConfig = deploymentConfigs.getIndexer().getByKey(key);
+            if (deploymentConfig != null) {
+                return deploymentConfig.getSpec().getTemplate();
+            }
+            Deployment deployment = deployments.getIndexer().getByKey(key);
+            if (deployment != null) {
+                return deployment.getSpec().getTemplate();
+            }
+            return null;
+        }
+
+        void stop() {
+            try {
+                informers.stopAllRegisteredInformers();
+            } catch (RuntimeException ignored) {
+                // the client may already be closed
+            }
+        }
     }
 }
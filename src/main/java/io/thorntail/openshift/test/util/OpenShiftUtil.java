@@ -9,16 +9,25 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static org.awaitility.Awaitility.await;
 import static org.fusesource.jansi.Ansi.ansi;
 
+/**
+ * Higher-level actions on OpenShift resources. Safe to use from concurrently running test methods:
+ * actions that change a deployment config (and await the result) are serialized per deployment config,
+ * so that e.g. two concurrent {@link #rolloutChanges(String) rollouts} of the same application don't interfere.
+ */
 public final class OpenShiftUtil {
     private final OpenShiftClient oc;
     private final AwaitUtil await;
 
+    // deployment config name -> lock
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
     public OpenShiftUtil(OpenShiftClient oc, AwaitUtil await) {
         this.oc = oc;
         this.await = await;
@@ -41,6 +50,12 @@ public final class OpenShiftUtil {
     }
 
     public void scale(String deploymentConfigName, int replicas) {
+        synchronized (lockFor(deploymentConfigName)) {
+            doScale(deploymentConfigName, replicas);
+        }
+    }
+
+    private void doScale(String deploymentConfigName, int replicas) {
         System.out.println(ansi().a("scaling ").fgYellow().a(deploymentConfigName).reset()
                 .a(" to ").fgYellow().a(replicas).reset().a(" replica(s)"));
 
@@ -53,28 +68,41 @@ public final class OpenShiftUtil {
     }
 
     public void deployLatest(String deploymentConfigName, boolean waitForAllReplicas) {
-        oc.deploymentConfigs()
-                .inNamespace(oc.getNamespace())
-                .withName(deploymentConfigName)
-                .deployLatest(waitForAllReplicas);
+        synchronized (lockFor(deploymentConfigName)) {
+            oc.deploymentConfigs()
+                    .inNamespace(oc.getNamespace())
+                    .withName(deploymentConfigName)
+                    .deployLatest(waitForAllReplicas);
+        }
     }
 
     public void awaitDeploymentReadiness(String deploymentConfigName, int expectedReplicas) {
         System.out.println(ansi().a("waiting for ").fgYellow().a(deploymentConfigName).reset()
                 .a(" to have exactly ").fgYellow().a(expectedReplicas).reset().a(" ready replica(s)"));
 
-        await().atMost(DefaultTimeout.getMinutes(), TimeUnit.MINUTES).until(() -> {
-            // ideally, we'd look at deployment config's status.availableReplicas field,
-            // but that's only available since OpenShift 3.5
-            List<Pod> pods = listPodsForDeploymentConfig(deploymentConfigName);
-            try {
-                return pods.size() == expectedReplicas && pods.stream().allMatch(ReadinessUtil::isReady);
-            } catch (IllegalStateException e) {
-                // the 'Ready' condition can be missing sometimes, in which case Readiness.isPodReady throws an exception
-                // here, we'll swallow that exception in hope that the 'Ready' condition will appear later
-                return false;
-            }
-        });
+        // a pod event doesn't tell anything about other pods, so each event triggers a full check
+        WatchingAwait.<Pod>until(deploymentConfigName + " to have exactly " + expectedReplicas + " ready replica(s)",
+                watcher -> oc.pods()
+                        .inNamespace(oc.getNamespace())
+                        .withLabel("deploymentconfig", deploymentConfigName)
+                        .watch(watcher),
+                ignored -> hasExactlyReadyReplicas(deploymentConfigName, expectedReplicas),
+                () -> hasExactlyReadyReplicas(deploymentConfigName, expectedReplicas),
+                Duration.ofMinutes(DefaultTimeout.getMinutes()),
+                PollingPolicy.forPhase(PollingPolicy.DEPLOYMENT_READINESS));
+    }
+
+    private boolean hasExactlyReadyReplicas(String deploymentConfigName, int expectedReplicas) {
+        // ideally, we'd look at deployment config's status.availableReplicas field,
+        // but that's only available since OpenShift 3.5
+        List<Pod> pods = listPodsForDeploymentConfig(deploymentConfigName);
+        try {
+            return pods.size() == expectedReplicas && pods.stream().allMatch(ReadinessUtil::isReady);
+        } catch (IllegalStateException e) {
+            // the 'Ready' condition can be missing sometimes, in which case Readiness.isPodReady throws an exception
+            // here, we'll swallow that exception in hope that the 'Ready' condition will appear later
+            return false;
+        }
     }
 
     public int countReadyReplicas(String deploymentConfigName) {
@@ -96,18 +124,24 @@ public final class OpenShiftUtil {
     public void rolloutChanges(String deploymentConfigName, boolean awaitApp) throws OpenShiftTestException {
         System.out.println(ansi().a("rolling out ").fgYellow().a(deploymentConfigName).reset());
 
-        int replicas = countReadyReplicas(deploymentConfigName);
+        synchronized (lockFor(deploymentConfigName)) {
+            int replicas = countReadyReplicas(deploymentConfigName);
 
-        // in reality, user would do `oc rollout latest`, but that's hard (racy) to wait for
-        // so here, we'll scale down to 0, wait for that, then scale back to original number of replicas and wait again
-        scale(deploymentConfigName, 0);
-        scale(deploymentConfigName, replicas);
+            // in reality, user would do `oc rollout latest`, but that's hard (racy) to wait for
+            // so here, we'll scale down to 0, wait for that, then scale back to original number of replicas and wait again
+            doScale(deploymentConfigName, 0);
+            doScale(deploymentConfigName, replicas);
 
-        if (awaitApp) {
-            await.awaitApp(deploymentConfigName);
+            if (awaitApp) {
+                await.awaitApp(deploymentConfigName);
+            }
         }
     }
 
+    private Object lockFor(String deploymentConfigName) {
+        return locks.computeIfAbsent(deploymentConfigName, ignored -> new Object());
+    }
+
     public void applyYaml(File yaml) throws IOException {
         try (InputStream is = new FileInputStream(yaml)) {
             applyYaml(is);
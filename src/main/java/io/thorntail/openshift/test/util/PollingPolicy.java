@@ -0,0 +1,100 @@
+package io.thorntail.openshift.test.util;
+
+import io.thorntail.openshift.test.config.Config;
+import org.awaitility.Awaitility;
+import org.awaitility.core.ConditionFactory;
+import org.awaitility.pollinterval.PollInterval;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Determines how often a condition is polled while awaiting some phase (such as readiness of a resource).
+ * The first poll happens after an initial delay, then the interval starts small and grows exponentially
+ * up to a cap, so that fast phases are noticed quickly, while slow phases don't flood the API server
+ * or the router with requests. Each interval is randomly shortened or prolonged (jitter), so that concurrent
+ * awaits don't poll in lockstep.
+ * <p>
+ * All settings can be configured globally ({@code -Dts.poll.<setting>}) or for a single phase
+ * ({@code -Dts.poll.<phase>.<setting>}), which takes precedence. Settings:
+ * <ul>
+ *     <li>{@code initial-delay-ms}: delay before the first poll</li>
+ *     <li>{@code initial-interval-ms}: interval between the first and the second poll</li>
+ *     <li>{@code backoff-percent}: by how many percent the interval grows after each poll</li>
+ *     <li>{@code max-interval-ms}: the interval never grows above this value</li>
+ *     <li>{@code jitter-percent}: by how many percent the interval may randomly differ</li>
+ * </ul>
+ * Phases are listed as constants in this class.
+ */
+public final class PollingPolicy implements PollInterval {
+    private static final String CONFIG_KEY_PREFIX = "ts.poll.";
+
+    public static final String READINESS = "readiness";
+    public static final String DEPLOYMENT_READINESS = "deployment-readiness";
+    public static final String IMAGE_STREAM = "image-stream";
+    public static final String ROUTE_WARM_UP = "route-warm-up";
+    public static final String EPHEMERAL_NAMESPACE = "ephemeral-namespace";
+
+    public static PollingPolicy forPhase(String phase) {
+        // an HTTP request through the router is more expensive than an API request, so the route is polled less often
+        int defaultInitialInterval = ROUTE_WARM_UP.equals(phase) ? 100 : 50;
+
+        return new PollingPolicy(
+                Duration.ofMillis(get(phase, "initial-delay-ms", 0)),
+                Duration.ofMillis(get(phase, "initial-interval-ms", defaultInitialInterval)),
+                get(phase, "backoff-percent", 50),
+                Duration.ofMillis(get(phase, "max-interval-ms", 2000)),
+                get(phase, "jitter-percent", 20));
+    }
+
+    private static int get(String phase, String setting, int defaultValue) {
+        int globalValue = Config.get().getAsInt(CONFIG_KEY_PREFIX + setting, defaultValue);
+        int value = Config.get().getAsInt(CONFIG_KEY_PREFIX + phase + "." + setting, globalValue);
+        if (value < 0) {
+            throw new IllegalArgumentException("Polling setting " + setting + " for " + phase + " must not be negative");
+        }
+        return value;
+    }
+
+    private final Duration initialDelay;
+    private final Duration initialInterval;
+    private final int backoffPercent;
+    private final Duration maxInterval;
+    private final int jitterPercent;
+
+    private PollingPolicy(Duration initialDelay, Duration initialInterval, int backoffPercent, Duration maxInterval,
+            int jitterPercent) {
+        this.initialDelay = initialDelay;
+        this.initialInterval = initialInterval;
+        this.backoffPercent = backoffPercent;
+        this.maxInterval = maxInterval;
+        this.jitterPercent = Math.min(jitterPercent, 100);
+    }
+
+    /**
+     * Returns an Awaitility {@code ConditionFactory} that polls according to this policy.
+     */
+    public ConditionFactory await() {
+        return Awaitility.await()
+                .pollDelay(initialDelay)
+                .pollInterval(this);
+    }
+
+    public Duration initialDelay() {
+        return initialDelay;
+    }
+
+    // doesn't depend on the previous duration, so that jitter doesn't accumulate
+    @Override
+    public Duration next(int pollCount, Duration previousDuration) {
+        double interval = initialInterval.toNanos() * Math.pow(1 + backoffPercent / 100.0, Math.max(pollCount - 1, 0));
+        interval = Math.min(interval, maxInterval.toNanos());
+
+        if (jitterPercent > 0) {
+            double jitter = jitterPercent / 100.0;
+            interval *= 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        }
+
+        return Duration.ofNanos(Math.max((long) interval, 1));
+    }
+}
@@ -0,0 +1,95 @@
+package io.thorntail.openshift.test.util;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.config.SSLConfig;
+import io.restassured.specification.RequestSpecification;
+import io.thorntail.openshift.test.config.Config;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * HTTP client for a single route. Connections are pooled and kept alive, and TLS sessions are reused,
+ * so that requests don't pay the TCP and TLS handshakes through the OpenShift router over and over again.
+ * For HTTPS routes, certificates and host names are not verified (same as
+ * {@link RestAssured#useRelaxedHTTPSValidation()}).
+ * <p>
+ * Instances are obtained from {@link DiscoveryUtil#getRouteClient(String)} or injected using {@code @TestResource}
+ * (with {@code @WithName} if there are multiple applications), and are closed by the test framework automatically.
+ * Maximum number of pooled connections can be configured using {@code -Dts.route-client.max-connections}.
+ */
+// RestAssured 4.4 only accepts the deprecated HttpClient 4.x types in its SSLConfig and HttpClientConfig;
+// they are referred to by fully qualified names, because deprecation warnings on imports can't be suppressed
+@SuppressWarnings("deprecation")
+public final class RouteClient implements AutoCloseable {
+    private static final String MAX_CONNECTIONS_CONFIG_KEY = "ts.route-client.max-connections";
+
+    private final String url;
+    private final org.apache.http.impl.conn.PoolingClientConnectionManager connectionManager;
+    private final RestAssuredConfig config;
+
+    RouteClient(String url) {
+        this.url = url;
+
+        int maxConnections = Config.get().getAsInt(MAX_CONNECTIONS_CONFIG_KEY, 20);
+        this.connectionManager = new org.apache.http.impl.conn.PoolingClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        org.apache.http.impl.client.DefaultHttpClient httpClient =
+                new org.apache.http.impl.client.DefaultHttpClient(connectionManager);
+
+        // without reusing the instance, RestAssured would shut the connection manager down after each request
+        RestAssuredConfig config = RestAssuredConfig.config()
+                .httpClient(HttpClientConfig.httpClientConfig()
+                        .httpClientFactory(() -> httpClient)
+                        .reuseHttpClientInstance());
+        if (url.startsWith("https://")) {
+            // a single socket factory (and hence a single SSL context), so that TLS sessions can be resumed
+            config = config.sslConfig(SSLConfig.sslConfig()
+                    .sslSocketFactory(relaxedSocketFactory())
+                    .allowAllHostnames());
+        }
+
+        this.config = config;
+    }
+
+    private static org.apache.http.conn.ssl.SSLSocketFactory relaxedSocketFactory() {
+        try {
+            return new org.apache.http.conn.ssl.SSLSocketFactory((chain, authType) -> true,
+                    org.apache.http.conn.ssl.SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
+        } catch (GeneralSecurityException e) {
+            // only happens when the JVM doesn't support TLS, which every JVM is required to
+            throw new IllegalStateException("Couldn't create TLS socket factory for routes", e);
+        }
+    }
+
+    public String url() {
+        return url;
+    }
+
+    /**
+     * Starts building a request to this route, same as {@link RestAssured#given()}. The base URI is already set.
+     */
+    public RequestSpecification given() {
+        return RestAssured.given().spec(spec());
+    }
+
+    /**
+     * Returns a new request specification for this route, which can be passed to
+     * {@link RestAssured#given(RequestSpecification)}. All specifications share the same connection pool,
+     * so concurrent test methods can each have their own.
+     */
+    public RequestSpecification spec() {
+        return new RequestSpecBuilder()
+                .setBaseUri(url)
+                .setConfig(config)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        connectionManager.shutdown();
+    }
+}
@@ -0,0 +1,134 @@
+package io.thorntail.openshift.test.util;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.thorntail.openshift.test.config.Config;
+import io.thorntail.openshift.test.jfr.JfrEvents;
+import org.awaitility.core.ConditionTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Awaits a condition by reacting to watch events, so that state transitions are noticed as soon as they happen
+ * and the API server isn't polled needlessly. The condition is checked once after the watch is established
+ * and then after each watch event. If the watch can't be established or is closed prematurely, falls back
+ * to polling.
+ * <p>
+ * Watches can be disabled altogether using {@code -Dts.poll-readiness}, in which case only polling is used.
+ * Polling follows given {@link PollingPolicy}.
+ */
+final class WatchingAwait<T> implements Watcher<T> {
+    private static final String CONFIG_KEY = "ts.poll-readiness";
+
+    private final Semaphore changes = new Semaphore(0);
+    private final AtomicReference<T> latest = new AtomicReference<>();
+    private volatile boolean closed;
+
+    /**
+     * @param description what is being awaited, used in the timeout message
+     * @param watchFactory starts watching the resource(s) of interest
+     * @param eventCondition evaluated with the resource state carried by an {@code ADDED} or {@code MODIFIED} event
+     * @param condition evaluated when the state must be fetched from the API server
+     * @param timeout how long to wait at most
+     * @param pollingPolicy how to poll when watching isn't possible
+     */
+    static <T> void until(String description, Function<Watcher<T>, Watch> watchFactory, Predicate<T> eventCondition,
+            Callable<Boolean> condition, Duration timeout, PollingPolicy pollingPolicy) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        // evaluations triggered by watch events are not polls, they don't hit the API server
+        Callable<Boolean> pollCondition = JfrEvents.recordPolls(description, condition);
+
+        if (Config.get().getAsBoolean(CONFIG_KEY, false)) {
+            poll(pollCondition, pollingPolicy, deadline);
+            return;
+        }
+
+        WatchingAwait<T> watcher = new WatchingAwait<>();
+        Watch watch;
+        try {
+            watch = watchFactory.apply(watcher);
+        } catch (KubernetesClientException e) {
+            poll(pollCondition, pollingPolicy, deadline);
+            return;
+        }
+
+        try {
+            // the watch is already established, so no change can be missed between this check and the first event
+            if (call(pollCondition)) {
+                return;
+            }
+
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new ConditionTimeoutException(description + " not satisfied within " + timeout);
+                }
+                if (!watcher.changes.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                    continue;
+                }
+                watcher.changes.drainPermits();
+
+                T resource = watcher.latest.getAndSet(null);
+                boolean satisfied = resource != null ? eventCondition.test(resource) : call(pollCondition);
+                if (satisfied) {
+                    return;
+                }
+
+                if (watcher.closed) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            watch.close();
+        }
+
+        poll(pollCondition, pollingPolicy, deadline);
+    }
+
+    private static void poll(Callable<Boolean> condition, PollingPolicy pollingPolicy, long deadline) {
+        pollingPolicy.await()
+                .atMost(Duration.ofNanos(Math.max(deadline - System.nanoTime(), 1)))
+                .until(condition);
+    }
+
+    private static boolean call(Callable<Boolean> condition) {
+        try {
+            return condition.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private WatchingAwait() {
+    }
+
+    @Override
+    public void eventReceived(Action action, T resource) {
+        if (action == Action.ADDED || action == Action.MODIFIED) {
+            latest.set(resource);
+        } else {
+            // the state is unknown, it must be fetched from the API server
+            latest.set(null);
+        }
+        changes.release();
+    }
+
+    @Override
+    public void onClose(WatcherException cause) {
+        closed = true;
+        changes.release();
+    }
+}
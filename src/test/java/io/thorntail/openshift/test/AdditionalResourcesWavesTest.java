@@ -0,0 +1,56 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdditionalResourcesWavesTest {
+    @Test
+    public void allWavesRunInReverseEvenIfSomeFail() {
+        List<List<String>> waves = Arrays.asList(
+                Collections.singletonList("first"),
+                Arrays.asList("second-a", "second-b"),
+                Collections.singletonList("third"));
+        List<String> processed = new CopyOnWriteArrayList<>();
+
+        OpenShiftTestException failure = assertThrows(OpenShiftTestException.class,
+                () -> AdditionalResourcesWaves.runAllInReverse(waves, item -> {
+                    processed.add(item);
+                    switch (item) {
+                        case "third":
+                            // a single item runs on the calling thread, so its exception isn't wrapped
+                            throw new IOException("can't delete third");
+                        case "second-b":
+                            throw new KubernetesClientException("can't delete second-b");
+                        default:
+                            return item;
+                    }
+                }));
+
+        assertThat(processed).hasSize(4);
+        assertThat(processed.get(0)).isEqualTo("third");
+        assertThat(processed.get(3)).isEqualTo("first");
+        assertThat(failure).hasMessage("can't delete third").hasCauseInstanceOf(IOException.class);
+        assertThat(failure.getSuppressed()).hasSize(1);
+        assertThat(failure.getSuppressed()[0]).hasMessage("can't delete second-b");
+    }
+
+    @Test
+    public void nothingIsThrownWhenAllWavesSucceed() throws OpenShiftTestException {
+        List<String> processed = new CopyOnWriteArrayList<>();
+
+        AdditionalResourcesWaves.runAllInReverse(Arrays.asList(
+                Collections.singletonList("first"),
+                Collections.singletonList("second")), processed::add);
+
+        assertThat(processed).containsExactly("second", "first");
+    }
+}
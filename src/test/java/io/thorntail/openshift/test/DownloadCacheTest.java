@@ -0,0 +1,102 @@
+package io.thorntail.openshift.test;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// the cache directory is configured in pom.xml; each test uses a different port and hence different URLs
+public class DownloadCacheTest {
+    private static final String ETAG = "\"v1\"";
+    private static final byte[] CONTENT = "kind: List\n".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private String url;
+    private final List<Integer> responses = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/app.yaml", exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                responses.add(304);
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                responses.add(200);
+                exchange.getResponseHeaders().set("ETag", ETAG);
+                exchange.sendResponseHeaders(200, CONTENT.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(CONTENT);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/app.yaml";
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        DownloadCache.forgetValidated();
+    }
+
+    @Test
+    public void firstDownload() throws IOException {
+        Path file = DownloadCache.get(url);
+
+        assertThat(file).hasBinaryContent(CONTENT);
+        assertThat(responses).containsExactly(200);
+
+        // already revalidated in this test run
+        assertThat(DownloadCache.get(url)).isEqualTo(file);
+        assertThat(responses).containsExactly(200);
+    }
+
+    @Test
+    public void revalidationInNextTestRun() throws IOException {
+        Path file = DownloadCache.get(url);
+        DownloadCache.forgetValidated();
+
+        assertThat(DownloadCache.get(url)).isEqualTo(file).hasBinaryContent(CONTENT);
+        assertThat(responses).containsExactly(200, 304);
+    }
+
+    @Test
+    public void cachedContentWhenServerIsUnreachable() throws IOException {
+        Path file = DownloadCache.get(url);
+        DownloadCache.forgetValidated();
+        server.stop(0);
+
+        assertThat(DownloadCache.get(url)).isEqualTo(file).hasBinaryContent(CONTENT);
+        assertThat(responses).containsExactly(200);
+    }
+
+    @Test
+    public void failureWhenServerIsUnreachableAndNothingIsCached() {
+        server.stop(0);
+
+        assertThrows(IOException.class, () -> DownloadCache.get(url));
+    }
+
+    @Test
+    public void contentIsSharedAcrossUrls() throws IOException {
+        Path file = DownloadCache.get(url);
+
+        assertThat(DownloadCache.get(url + "?copy")).isEqualTo(file);
+        assertThat(Files.exists(file)).isTrue();
+    }
+}
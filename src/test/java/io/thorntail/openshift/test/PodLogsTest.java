@@ -0,0 +1,30 @@
+package io.thorntail.openshift.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PodLogsTest {
+    @Test
+    public void shortLogIsKeptWhole() throws IOException {
+        assertThat(PodLogs.tail(new StringReader("started\nfailed\n"), 100)).isEqualTo("started\nfailed\n");
+    }
+
+    @Test
+    public void endOfLongLogIsKept() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            log.append("line ").append(i).append('\n');
+        }
+        log.append("java.lang.IllegalStateException: boom\n");
+
+        String tail = PodLogs.tail(new StringReader(log.toString()), 1000);
+
+        assertThat(tail).hasSize(1000);
+        assertThat(log.toString()).endsWith(tail);
+        assertThat(tail).endsWith("line 99999\njava.lang.IllegalStateException: boom\n");
+    }
+}
@@ -0,0 +1,66 @@
+package io.thorntail.openshift.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RingBufferTest {
+    @Test
+    public void memoryIsAllocatedAsDataArrive() throws IOException {
+        RingBuffer buffer = new RingBuffer(1024 * 1024);
+        assertThat(buffer.allocated()).isZero();
+
+        write(buffer, "hello\n");
+        buffer.write('!');
+
+        assertThat(buffer.allocated()).isLessThan(1024);
+        assertThat(content(buffer)).isEqualTo("hello\n!");
+    }
+
+    @Test
+    public void endIsKeptWhenCapacityIsExceeded() throws IOException {
+        RingBuffer buffer = new RingBuffer(10);
+        for (int i = 0; i < 100; i++) {
+            write(buffer, "line " + i + "\n");
+        }
+        buffer.write('x');
+
+        assertThat(buffer.allocated()).isEqualTo(10);
+        assertThat(content(buffer)).isEqualTo("\nline 99\nx");
+    }
+
+    @Test
+    public void endIsKeptWhenSingleWriteExceedsCapacity() throws IOException {
+        RingBuffer buffer = new RingBuffer(4);
+        write(buffer, "ab");
+        write(buffer, "0123456789");
+
+        assertThat(content(buffer)).isEqualTo("6789");
+    }
+
+    @Test
+    public void capacityMustBePositive() {
+        assertThatThrownBy(() -> new RingBuffer(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("greater than 0");
+        assertThatThrownBy(() -> new RingBuffer(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void write(RingBuffer buffer, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    private static String content(RingBuffer buffer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        assertThat(out.size()).isEqualTo(buffer.size());
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
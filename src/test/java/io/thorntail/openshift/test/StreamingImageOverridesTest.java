@@ -0,0 +1,132 @@
+package io.thorntail.openshift.test;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.openshift.client.DefaultOpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftConfigBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the streaming mode must change the same values as the object model mode, and nothing else
+public class StreamingImageOverridesTest {
+    private static ImageOverridesConfig config;
+    // only used to parse and serialize resources, never connects anywhere
+    private static OpenShiftClient oc;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    public static void setUp() throws IOException, URISyntaxException {
+        config = ImageOverridesConfig.load(resource("overrides"));
+        oc = new DefaultOpenShiftClient(new OpenShiftConfigBuilder().withMasterUrl("https://localhost:8443").build());
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        oc.close();
+    }
+
+    @Test
+    public void multipleDocumentsWithComments() throws Exception {
+        String result = rewriteBothWays("multi-document.yml");
+
+        assertThat(result).isEqualTo(original("multi-document.yml")
+                .replace("image: quay.io/tools/wait-for:1.0", "image: registry.example.com/tools/wait-for:1.0")
+                .replace("image: quay.io/app/web:1", "image: registry.example.com/app/web:2")
+                .replace("image: docker.io/library/postgres:13", "image: registry.example.com/postgres:13")
+                .replace("dockerImageRepository: quay.io/app/web", "dockerImageRepository: registry.example.com/app/web:2")
+                .replace("name: quay.io/app/web:1", "name: registry.example.com/app/web:2"));
+    }
+
+    @Test
+    public void quotedValues() throws Exception {
+        String result = rewriteBothWays("quoted.yml");
+
+        assertThat(result).isEqualTo(original("quoted.yml")
+                .replace("\"quay.io/app/web:1\"", "\"registry.example.com/app/web:2\"")
+                .replace("'quay.io/tools/curl:7'", "'registry.example.com/tools/curl:7'")
+                .replace("image: docker.io/library/postgres:13", "image: registry.example.com/postgres:13"));
+    }
+
+    @Test
+    public void flowStyle() throws Exception {
+        String result = rewriteBothWays("flow.yml");
+
+        assertThat(result).isEqualTo(original("flow.yml")
+                .replace("image: quay.io/app/web:1", "image: registry.example.com/app/web:2")
+                .replace("image: \"quay.io/tools/curl:7\"", "image: \"registry.example.com/tools/curl:7\""));
+    }
+
+    @Test
+    public void charactersOutsideBasicMultilingualPlane() throws Exception {
+        String result = rewriteBothWays("non-bmp.yml");
+
+        assertThat(result).isEqualTo(original("non-bmp.yml")
+                .replace("image: quay.io/app/web:1", "image: registry.example.com/app/web:2")
+                .replace("image: quay.io/tools/curl:7", "image: registry.example.com/tools/curl:7"));
+    }
+
+    // the object model resolves anchors and tags, so there's nothing to compare with
+    @Test
+    public void valuesWithAnchorsOrTagsAreKept() throws Exception {
+        String result = rewriteStreaming("anchors.yml");
+
+        assertThat(result).isEqualTo(original("anchors.yml")
+                .replace("image: quay.io/tools/curl:7", "image: registry.example.com/tools/curl:7"));
+    }
+
+    // the object model doesn't support complex keys
+    @Test
+    public void complexKeysAreKept() throws Exception {
+        String result = rewriteStreaming("complex-keys.yml");
+
+        assertThat(result).isEqualTo(original("complex-keys.yml")
+                .replace("\ncontainers:\n  - image: quay.io/app/web:1", "\ncontainers:\n  - image: registry.example.com/app/web:2"));
+        assertThat(result).startsWith("? {containers: [{image: quay.io/app/web:1}]}");
+    }
+
+    private String rewriteBothWays(String file) throws Exception {
+        Path objectModel = directory.resolve("object-model.yml");
+        ImageOverrides.rewrite(resource(file), objectModel, config, oc);
+        assertThat(load(objectModel)).isNotEqualTo(load(resource(file)));
+
+        String result = rewriteStreaming(file);
+        // the object model mode doesn't keep the order of documents
+        assertThat(load(directory.resolve("streaming.yml"))).containsExactlyInAnyOrderElementsOf(load(objectModel));
+        return result;
+    }
+
+    private String rewriteStreaming(String file) throws Exception {
+        Path streaming = directory.resolve("streaming.yml");
+        StreamingImageOverrides.rewrite(resource(file), streaming, config);
+        return new String(Files.readAllBytes(streaming), StandardCharsets.UTF_8);
+    }
+
+    private static List<HasMetadata> load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return oc.load(in).get();
+        }
+    }
+
+    private static String original(String file) throws Exception {
+        return new String(Files.readAllBytes(resource(file)), StandardCharsets.UTF_8);
+    }
+
+    private static Path resource(String file) throws URISyntaxException {
+        return Paths.get(StreamingImageOverridesTest.class.getResource("/image-overrides/" + file).toURI());
+    }
+}
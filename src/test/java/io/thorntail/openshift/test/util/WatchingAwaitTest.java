@@ -0,0 +1,87 @@
+package io.thorntail.openshift.test.util;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.openshift.client.NamespacedOpenShiftClient;
+import io.fabric8.openshift.client.server.mock.OpenShiftServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WatchingAwaitTest {
+    private static final String NAME = "app";
+
+    private OpenShiftServer server;
+    private NamespacedOpenShiftClient oc;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    private void startServer(boolean crudMode) {
+        server = new OpenShiftServer(false, crudMode);
+        server.before();
+        oc = server.getOpenshiftClient().inNamespace("test");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        executor.shutdownNow();
+        oc.close();
+        server.after();
+    }
+
+    @Test
+    public void changeIsNoticedFromWatchEvent() {
+        startServer(true);
+        oc.configMaps().create(configMap(false));
+        AtomicInteger polls = new AtomicInteger();
+
+        executor.schedule(() -> oc.configMaps().withName(NAME).edit(ignored -> configMap(true)),
+                200, TimeUnit.MILLISECONDS);
+
+        WatchingAwait.<ConfigMap>until("config map ready",
+                watcher -> oc.configMaps().withName(NAME).watch(watcher),
+                WatchingAwaitTest::isReady,
+                () -> {
+                    polls.incrementAndGet();
+                    return isReady(oc.configMaps().withName(NAME).get());
+                },
+                Duration.ofSeconds(30),
+                PollingPolicy.forPhase(PollingPolicy.READINESS));
+
+        // only the initial check after the watch is established hits the API server
+        assertThat(polls).hasValue(1);
+    }
+
+    @Test
+    public void fallsBackToPollingWhenWatchFails() {
+        // in expectations mode, the server rejects the watch request, because there's no expectation for it
+        startServer(false);
+        AtomicInteger polls = new AtomicInteger();
+
+        WatchingAwait.<ConfigMap>until("config map ready",
+                watcher -> oc.configMaps().withName(NAME).watch(watcher),
+                WatchingAwaitTest::isReady,
+                () -> polls.incrementAndGet() >= 3,
+                Duration.ofSeconds(30),
+                PollingPolicy.forPhase(PollingPolicy.READINESS));
+
+        assertThat(polls).hasValue(3);
+    }
+
+    private static ConfigMap configMap(boolean ready) {
+        return new ConfigMapBuilder()
+                .withNewMetadata().withName(NAME).endMetadata()
+                .addToData("ready", String.valueOf(ready))
+                .build();
+    }
+
+    private static boolean isReady(ConfigMap configMap) {
+        return configMap != null && "true".equals(configMap.getData().get("ready"));
+    }
+}